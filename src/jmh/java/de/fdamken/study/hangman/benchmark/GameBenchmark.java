@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.fdamken.study.hangman.game.Game;
+
+/**
+ * Benchmarks the hot paths of {@link Game}.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5,
+        time = 1)
+@Measurement(iterations = 5,
+             time = 1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    /**
+     * The length of the word to guess.
+     *
+     */
+    @Param({ "5", "10", "20" })
+    private int wordLength;
+
+    /**
+     * The word to guess.
+     *
+     */
+    private String word;
+    /**
+     * A game where half of the letters are revealed.
+     *
+     */
+    private Game game;
+
+    /**
+     * Sets up the state.
+     *
+     */
+    @Setup
+    public void setUp() {
+        Game.setRepository(new NoOpGameRepository());
+
+        this.word = GameBenchmark.createWord(this.wordLength);
+        this.game = new Game(this.word);
+        for (int i = 0; i < this.wordLength / 2; i++) {
+            this.game.guess(this.word.charAt(i));
+        }
+    }
+
+    /**
+     * Creates a word of the given length with as many distinct letters as
+     * possible.
+     *
+     * @param length
+     *            The length of the word.
+     * @return The word.
+     */
+    public static String createWord(final int length) {
+        final char[] word = new char[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = (char) ('A' + i * 7 % 26);
+        }
+        return new String(word);
+    }
+
+    /**
+     * Measures the construction of a game (including the validation of the
+     * word).
+     *
+     * @return The game.
+     */
+    @Benchmark
+    public Game construct() {
+        return new Game(this.word);
+    }
+
+    /**
+     * Measures a guess of a letter that was already guessed.
+     *
+     * @return The result of the guess.
+     */
+    @Benchmark
+    public boolean guessRepeated() {
+        return this.game.guess(this.word.charAt(0));
+    }
+
+    /**
+     * Measures the retrieval of the masked word.
+     *
+     * @return The masked word.
+     */
+    @Benchmark
+    public String maskedWord() {
+        return this.game.getMaskedWord();
+    }
+
+    /**
+     * Measures a whole game: Every letter of the alphabet is guessed until the
+     * game is solved and the masked word is retrieved after every guess (like
+     * the clients do).
+     *
+     * @param blackhole
+     *            The {@link Blackhole} to consume the results.
+     */
+    @Benchmark
+    public void play(final Blackhole blackhole) {
+        final Game game = new Game(this.word, 26);
+        for (char character = 'A'; character <= 'Z' && !game.isSolved(); character++) {
+            blackhole.consume(game.guess(character));
+            blackhole.consume(game.getMaskedWord());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+
+/**
+ * Benchmarks {@link GameGenerator}.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5,
+        time = 1)
+@Measurement(iterations = 5,
+             time = 1)
+@State(Scope.Benchmark)
+public class GameGeneratorBenchmark {
+    /**
+     * The language to generate games for.
+     *
+     */
+    @Param
+    private Language language;
+
+    /**
+     * Sets up the state. The dictionary is loaded here as the first load is
+     * not of interest.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Game.setRepository(new NoOpGameRepository());
+
+        GameGenerator.generate(this.language);
+    }
+
+    /**
+     * Measures the generation of a game.
+     *
+     * @return The generated game.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    @Benchmark
+    public Game generate() throws IOException {
+        return GameGenerator.generate(this.language);
+    }
+}
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameRepository;
+
+/**
+ * A {@link GameRepository} that does not store anything. This is used for
+ * measuring the game engine without the costs of the registry.
+ *
+ */
+public class NoOpGameRepository implements GameRepository {
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#save(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void save(final Game game) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#find(long)
+     */
+    @Override
+    public Game find(final long gameId) {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#findAll()
+     */
+    @Override
+    public List<Game> findAll() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#remove(long)
+     */
+    @Override
+    public void remove(final long gameId) {
+        // Nothing to do.
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#size()
+     */
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#getEvictionCount()
+     */
+    @Override
+    public long getEvictionCount() {
+        return 0;
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.rest.GameResponse;
+import de.fdamken.study.hangman.rest.GameRestController;
+import de.fdamken.study.hangman.rest.GameView;
+
+/**
+ * Benchmarks the JSON serialization of the responses of
+ * {@link GameRestController}.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5,
+        time = 1)
+@Measurement(iterations = 5,
+             time = 1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    /**
+     * The length of the word to guess.
+     *
+     */
+    @Param({ "5", "10", "20" })
+    private int wordLength;
+
+    /**
+     * The mapper that is used for serialization.
+     *
+     */
+    private final ObjectMapper mapper = new ObjectMapper();
+    /**
+     * The cached writer for the responses.
+     *
+     */
+    private final ObjectWriter writer = this.mapper.writerFor(GameResponse.class);
+
+    /**
+     * The game to serialize.
+     *
+     */
+    private Game game;
+
+    /**
+     * Sets up the state.
+     *
+     */
+    @Setup
+    public void setUp() {
+        Game.setRepository(new NoOpGameRepository());
+
+        final String word = GameBenchmark.createWord(this.wordLength);
+        this.game = new Game(word);
+        for (int i = 0; i < this.wordLength / 2; i++) {
+            this.game.guess(word.charAt(i));
+        }
+    }
+
+    /**
+     * Measures the serialization of the response of a game (like it is
+     * created by {@link GameRestController}).
+     *
+     * @return The serialized response.
+     * @throws JsonProcessingException
+     *             If the serialization fails.
+     */
+    @Benchmark
+    public byte[] serializeGame() throws JsonProcessingException {
+        return this.writer.writeValueAsBytes(new GameResponse(new GameView(this.game)));
+    }
+
+    /**
+     * Measures the serialization of the whole game wrapped inside a map (like
+     * it was done before the introduction of {@link GameView}) for
+     * comparison.
+     *
+     * @return The serialized response.
+     * @throws JsonProcessingException
+     *             If the serialization fails.
+     */
+    @Benchmark
+    public byte[] serializeGameReflective() throws JsonProcessingException {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("game", this.game);
+        return this.mapper.writeValueAsBytes(result);
+    }
+}
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.fdamken.study.hangman.game.Dictionaries;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.SolverIndex;
+
+/**
+ * Benchmarks {@link SolverIndex}.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5,
+        time = 1)
+@Measurement(iterations = 5,
+             time = 1)
+@State(Scope.Benchmark)
+public class SolverIndexBenchmark {
+    /**
+     * The number of correct guesses before asking for a hint.
+     *
+     */
+    @Param({ "0", "2" })
+    private int guesses;
+
+    /**
+     * The index to benchmark.
+     *
+     */
+    private SolverIndex index;
+    /**
+     * The game to suggest a letter for.
+     *
+     */
+    private Game game;
+
+    /**
+     * Sets up the state. The index is created here as the first creation is
+     * not of interest.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Game.setRepository(new NoOpGameRepository());
+
+        this.index = Dictionaries.get(Language.ENG).getSolverIndex();
+        this.game = new Game("HANGMAN");
+        for (int i = 0; i < this.guesses; i++) {
+            this.game.guess(this.game.getWord().charAt(i));
+        }
+    }
+
+    /**
+     * Measures suggesting a letter.
+     *
+     * @return The hint.
+     */
+    @Benchmark
+    public SolverIndex.Hint hint() {
+        return this.index.hint(this.game, SolverIndex.mask("EO"));
+    }
+}
@@ -0,0 +1,330 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.RandomSource;
+import de.fdamken.study.hangman.game.SeededRandomSource;
+import de.fdamken.study.hangman.game.WordConstraints;
+
+/**
+ * Plays the games of the CLI client like a normal main-method. It does not
+ * depend on Spring, so it is used both by {@link HangmanCli} and by the
+ * {@link de.fdamken.study.hangman.config.CliConfiguration}.
+ *
+ * <p>
+ * By default, a single game is played interactively. In batch mode, the
+ * games are read from a file or stdin, one per line, and the results are
+ * written to stdout as tab separated lines (see {@link #batch(Reader)}).
+ * </p>
+ *
+ * <p>
+ * Supported options:
+ * </p>
+ * <ul>
+ * <li><code>--batch[=&lt;file&gt;]</code>: Plays the games from the given
+ * file (or stdin if no file is given) non-interactively.</li>
+ * <li><code>--lang=&lt;ENG|GER&gt;</code>: The language of the random
+ * words. Defaults to <code>GER</code>.</li>
+ * <li><code>--mistakes=&lt;count&gt;</code>: The number of mistakes one
+ * must make in order to loose. Defaults to {@link #DEFAULT_MAX_MISTAKES}.</li>
+ * <li><code>--seed=&lt;seed&gt;</code>: The seed for choosing the words.
+ * The same seed always results in the same sequence of words.</li>
+ * </ul>
+ *
+ * <p>
+ * Unknown options are rejected with an {@link IllegalArgumentException}.
+ * </p>
+ *
+ */
+public class CliRunner {
+    /**
+     * The batch option.
+     *
+     */
+    private static final String BATCH_OPTION = "--batch";
+    /**
+     * The prefix of the language option.
+     *
+     */
+    private static final String LANGUAGE_OPTION = "--lang=";
+    /**
+     * The prefix of the mistakes option.
+     *
+     */
+    private static final String MISTAKES_OPTION = "--mistakes=";
+    /**
+     * The prefix of the seed option.
+     *
+     */
+    private static final String SEED_OPTION = "--seed=";
+    /**
+     * The game specification of a random word.
+     *
+     */
+    private static final String RANDOM_WORD = "*";
+    /**
+     * The size of the I/O buffers in batch mode.
+     *
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * The default number of mistakes one must make in order to loose. The
+     * CLI has always allowed 11 mistakes and lost on the 12th, which is
+     * one more than {@link Game#DEFAULT_MAX_MISTAKES} of the web client.
+     *
+     */
+    public static final int DEFAULT_MAX_MISTAKES = Game.DEFAULT_MAX_MISTAKES + 1;
+
+    /**
+     * The language of the random words.
+     *
+     */
+    private Language language = Language.GER;
+    /**
+     * The number of mistakes one must make in order to loose.
+     *
+     */
+    private int maxMistakes = CliRunner.DEFAULT_MAX_MISTAKES;
+    /**
+     * The source of random numbers for choosing the words.
+     *
+     */
+    private RandomSource random = GameGenerator.getRandomSource();
+
+    /**
+     * Parses the given options and plays the games.
+     *
+     * @param args
+     *            The CLI options.
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws IllegalArgumentException
+     *             If any option is unknown or has an invalid value.
+     */
+    public void run(final String... args) throws IOException {
+        String batch = null;
+        for (final String arg : args) {
+            if (arg.equals(CliRunner.BATCH_OPTION)) {
+                batch = "";
+            } else if (arg.startsWith(CliRunner.BATCH_OPTION + "=")) {
+                batch = arg.substring(CliRunner.BATCH_OPTION.length() + 1);
+            } else if (arg.startsWith(CliRunner.LANGUAGE_OPTION)) {
+                this.language = Language
+                        .valueOf(arg.substring(CliRunner.LANGUAGE_OPTION.length()).toUpperCase(Locale.ROOT));
+            } else if (arg.startsWith(CliRunner.MISTAKES_OPTION)) {
+                this.maxMistakes = Integer.parseInt(arg.substring(CliRunner.MISTAKES_OPTION.length()));
+            } else if (arg.startsWith(CliRunner.SEED_OPTION)) {
+                this.random = new SeededRandomSource(Long.parseLong(arg.substring(CliRunner.SEED_OPTION.length())));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg + "!");
+            }
+        }
+
+        if (batch == null) {
+            this.play();
+        } else if (batch.isEmpty() || batch.equals("-")) {
+            this.batch(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        } else {
+            this.batch(Files.newBufferedReader(Paths.get(batch), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Plays a single random game interactively.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private void play() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
+            final Game game = GameGenerator.generate(this.language, new WordConstraints(), this.random,
+                    this.maxMistakes);
+
+            System.out.println("A random " + CliRunner.displayName(this.language) + " game was generated.");
+            System.out.println("Here is it: " + game.getMaskedWord());
+            System.out.println("You are allowed to do " + (game.getMaxMistakes() - 1) + " mistakes!");
+            while (!game.isSolved() && !game.isLost()) {
+                System.out.println();
+                System.out.println("Word: " + game.getMaskedWord());
+                System.out.println("Total mistakes: " + game.getMistakeCount());
+                System.out.print("Please enter one character to guess: ");
+
+                final String line = reader.readLine();
+                if (line == null) {
+                    return;
+                }
+                if (line.length() == 1) {
+                    final char character = line.charAt(0);
+                    if (game.guess(character)) {
+                        System.out.println("That was correct!");
+                    } else {
+                        System.out.println("That was not correct!");
+                    }
+                } else {
+                    System.out.println("Please enter exactly one character!");
+                }
+            }
+            System.out.println();
+            if (game.isSolved()) {
+                System.out.println("You won!");
+            } else {
+                System.out.println("You lost!");
+            }
+            System.out.println("The word was: " + game.getWord());
+        }
+    }
+
+    /**
+     * Plays the games read from the given reader non-interactively.
+     *
+     * <p>
+     * Every line contains one game: The word (or <code>*</code> for a
+     * random word) optionally followed by a whitespace and the characters
+     * to guess in order, e.g. <code>* ETAOINSHR</code>. The guesses stop
+     * as soon as the game is finished. Empty lines and lines starting with
+     * <code>#</code> are ignored, invalid lines are reported on stderr.
+     * </p>
+     *
+     * <p>
+     * For every game, a tab separated line is written to stdout containing
+     * the line number, the word, the result (<code>SOLVED</code>,
+     * <code>LOST</code> or <code>OPEN</code> if the guesses ran out), the
+     * number of mistakes, the number of guesses and the masked word. A
+     * summary is written to stderr at the end.
+     * </p>
+     *
+     * @param in
+     *            The reader to read the games from. It is closed
+     *            afterwards.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private void batch(final Reader in) throws IOException {
+        final long start = System.nanoTime();
+        int games = 0;
+        int solved = 0;
+        int lost = 0;
+        int invalid = 0;
+        try (BufferedReader reader = new BufferedReader(in, CliRunner.BUFFER_SIZE)) {
+            final Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                    CliRunner.BUFFER_SIZE);
+            out.write("line\tword\tresult\tmistakes\tguesses\tmasked\n");
+
+            final WordConstraints constraints = new WordConstraints();
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                final String[] parts = line.split("\\s+", 2);
+                final Game game;
+                try {
+                    game = parts[0].equals(CliRunner.RANDOM_WORD)
+                            ? GameGenerator.generate(this.language, constraints, this.random, this.maxMistakes)
+                            : new Game(parts[0], this.maxMistakes);
+                } catch (final IllegalArgumentException ex) {
+                    System.err.println("Line " + lineNumber + ": " + ex.getMessage());
+                    invalid++;
+                    continue;
+                }
+
+                final String guesses = parts.length > 1 ? parts[1] : "";
+                int guessCount = 0;
+                for (int i = 0; i < guesses.length() && !game.isSolved() && !game.isLost(); i++) {
+                    final char character = guesses.charAt(i);
+                    if (!Character.isWhitespace(character)) {
+                        game.guess(character);
+                        guessCount++;
+                    }
+                }
+
+                final String result;
+                if (game.isSolved()) {
+                    result = "SOLVED";
+                    solved++;
+                } else if (game.isLost()) {
+                    result = "LOST";
+                    lost++;
+                } else {
+                    result = "OPEN";
+                    // Finished games are removed automatically.
+                    Game.getRepository().remove(game.getId());
+                }
+                games++;
+
+                out.write(Integer.toString(lineNumber));
+                out.write('\t');
+                out.write(game.getWord());
+                out.write('\t');
+                out.write(result);
+                out.write('\t');
+                out.write(Integer.toString(game.getMistakeCount()));
+                out.write('\t');
+                out.write(Integer.toString(guessCount));
+                out.write('\t');
+                out.write(game.getMaskedWord());
+                out.write('\n');
+            }
+            out.flush();
+        }
+
+        System.err.println("Played " + games + " games (" + solved + " solved, " + lost + " lost, "
+                + (games - solved - lost) + " open, " + invalid + " invalid) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Retrieves the English name of the given {@link Language} (e.g.
+     * <code>GERMAN</code>).
+     *
+     * @param language
+     *            The {@link Language}.
+     * @return The upper case name of the language.
+     */
+    private static String displayName(final Language language) {
+        return Locale.forLanguageTag(language.getLocale().replace('_', '-')).getDisplayLanguage(Locale.ENGLISH)
+                .toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * A lightweight main class of the CLI client that plays the games without a
+ * Spring context (see {@link CliRunner} for the supported
+ * options). It starts in a fraction of the time {@link Hangman} needs, as
+ * only the classes of the game engine are loaded, which also makes it
+ * suitable for class data sharing archives.
+ *
+ * <p>
+ * The option <code>--startup-time</code> reports the time the JVM needed until
+ * this main method was entered and the time needed for playing on stderr.
+ * </p>
+ *
+ */
+public class HangmanCli {
+    /**
+     * The option for reporting the startup time.
+     *
+     */
+    private static final String STARTUP_TIME_OPTION = "--startup-time";
+    /**
+     * The logback configuration that is used unless another one is given.
+     *
+     */
+    private static final String LOGBACK_CONFIGURATION = "logback-cli.xml";
+
+    /**
+     * The main method.
+     *
+     * @param args
+     *            The CLI arguments.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static void main(final String[] args) throws IOException {
+        final long start = System.nanoTime();
+        if (System.getProperty("logback.configurationFile") == null) {
+            System.setProperty("logback.configurationFile", HangmanCli.LOGBACK_CONFIGURATION);
+        }
+
+        final boolean startupTime = Arrays.asList(args).contains(HangmanCli.STARTUP_TIME_OPTION);
+        try {
+            new CliRunner().run(Arrays.stream(args).filter(arg -> !arg.equals(HangmanCli.STARTUP_TIME_OPTION))
+                    .toArray(String[]::new));
+        } catch (final IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+        }
+
+        if (startupTime) {
+            final long elapsed = (System.nanoTime() - start) / 1_000_000;
+            // The management classes are only loaded now, so they are not
+            // included in the measured time.
+            final long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            System.err.println("JVM started in " + (uptime - elapsed) + " ms, played in " + elapsed + " ms.");
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.metrics.LatencyHistogram;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A load driver that puts load on the REST API of a running instance by
+ * simulating players. Every player generates games and guesses until the
+ * game is solved or lost. Afterwards the throughput and the latencies per
+ * endpoint are reported (named like the handler methods, so they can be
+ * compared with the <code>latency.*</code> metrics of the instance).
+ *
+ * <p>
+ * Supported options:
+ * </p>
+ * <ul>
+ * <li><code>--url=&lt;url&gt;</code>: The URL of the instance (defaults to
+ * <code>http://localhost:8080</code>).</li>
+ * <li><code>--players=&lt;n&gt;</code>: The number of players (defaults to
+ * <code>100</code>).</li>
+ * <li><code>--concurrency=&lt;n&gt;</code>: The number of players playing at
+ * the same time (defaults to <code>16</code>).</li>
+ * <li><code>--games=&lt;n&gt;</code>: The number of games every player plays
+ * (defaults to <code>10</code>).</li>
+ * <li><code>--lang=&lt;language&gt;</code>: The language of the games
+ * (defaults to <code>ENG</code>).</li>
+ * <li><code>--seed=&lt;seed&gt;</code>: The seed for the guesses of the
+ * players (defaults to <code>0</code>). The words are chosen with the same
+ * seed, so a run with the same options is repeatable.</li>
+ * <li><code>--retries=&lt;n&gt;</code>: The number of times a request that
+ * is rejected is retried (defaults to <code>5</code>).</li>
+ * </ul>
+ *
+ * <p>
+ * Requests that are rejected with <code>503</code> are retried after the
+ * time given by <code>Retry-After</code>. If a request is still rejected after
+ * all retries, it counts as failed. Rejected attempts and their latencies are
+ * reported separately, so they do not distort the latencies of the endpoints.
+ * </p>
+ *
+ */
+@RequiredArgsConstructor
+public class LoadDriver {
+    /**
+     * The letters ordered by their frequency in English words.
+     *
+     */
+    private static final String ENGLISH_LETTERS = "ETAOINSHRDLCUMWFGYPBVKJXQZ";
+    /**
+     * The letters ordered by their frequency in German words.
+     *
+     */
+    private static final String GERMAN_LETTERS = "ENISRATDHULCGMOBWFKZPVJYXQ";
+    /**
+     * The probability that two neighboring letters are swapped for a player,
+     * so the players do not all guess in the same order.
+     *
+     */
+    private static final double SWAP_PROBABILITY = 0.3;
+
+    /**
+     * The mapper for parsing the responses.
+     *
+     */
+    private final ObjectMapper mapper = new ObjectMapper();
+    /**
+     * The statistics of generating games.
+     *
+     */
+    private final Endpoint generate = new Endpoint("generateGame");
+    /**
+     * The statistics of guessing.
+     *
+     */
+    private final Endpoint guess = new Endpoint("quess");
+    /**
+     * The number of solved games.
+     *
+     */
+    private final LongAdder solved = new LongAdder();
+    /**
+     * The number of lost games.
+     *
+     */
+    private final LongAdder lost = new LongAdder();
+
+    /**
+     * The URL of the instance.
+     *
+     */
+    private final String url;
+    /**
+     * The language of the games.
+     *
+     */
+    private final Language language;
+    /**
+     * The number of games every player plays.
+     *
+     */
+    private final int games;
+    /**
+     * The seed for the guesses and the words.
+     *
+     */
+    private final long seed;
+    /**
+     * The number of times a rejected request is retried.
+     *
+     */
+    private final int retries;
+
+    /**
+     * The main method.
+     *
+     * @param args
+     *            The CLI arguments (see above).
+     * @throws Exception
+     *             If the load driver fails.
+     */
+    public static void main(final String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        int players = 100;
+        int concurrency = 16;
+        int games = 10;
+        Language language = Language.ENG;
+        long seed = 0;
+        int retries = 5;
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            final String value = separator < 0 ? "" : arg.substring(separator + 1);
+            switch (separator < 0 ? arg : arg.substring(0, separator)) {
+                case "--url":
+                    url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "--players":
+                    players = Integer.parseInt(value);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(value);
+                    break;
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--lang":
+                    language = Language.valueOf(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--retries":
+                    retries = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg + "!");
+            }
+        }
+
+        // Keep a connection alive for every concurrent player.
+        System.setProperty("http.maxConnections", String.valueOf(concurrency));
+
+        System.out.println("Running " + players + " players (" + concurrency + " concurrently, " + games
+                + " games each) against " + url + ".");
+        new LoadDriver(url, language, games, seed, retries).run(players, concurrency);
+    }
+
+    /**
+     * Runs the given number of players and prints the report afterwards.
+     *
+     * @param players
+     *            The number of players.
+     * @param concurrency
+     *            The number of players playing at the same time.
+     * @throws InterruptedException
+     *             If the current thread is interrupted while waiting for the
+     *             players.
+     */
+    public void run(final int players, final int concurrency) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        final List<Future<?>> futures = new ArrayList<>(players);
+        for (int player = 0; player < players; player++) {
+            final long playerSeed = this.seed + player;
+            futures.add(executor.submit(() -> {
+                this.play(playerSeed);
+                return null;
+            }));
+        }
+        int failed = 0;
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final Exception ex) {
+                if (failed++ == 0) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+        executor.shutdown();
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println();
+        System.out.printf("Played %d games (%d solved, %d lost, %d players failed) in %.1f s.%n",
+                this.solved.sum() + this.lost.sum(), this.solved.sum(), this.lost.sum(), failed, seconds);
+        System.out.println();
+        System.out.printf("%-18s %10s %8s %8s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "rejected",
+                "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (final Endpoint endpoint : new Endpoint[] { this.generate, this.guess }) {
+            final LatencyHistogram latency = endpoint.latency;
+            System.out.printf("%-18s %10d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.name,
+                    latency.getCount(), endpoint.errors.sum(), endpoint.rejected.sum(),
+                    latency.getCount() / seconds, latency.getPercentile(0.5), latency.getPercentile(0.99),
+                    latency.getPercentile(0.999), latency.getMax());
+        }
+        for (final Endpoint endpoint : new Endpoint[] { this.generate, this.guess }) {
+            final LatencyHistogram latency = endpoint.rejectedLatency;
+            if (latency.getCount() > 0) {
+                System.out.printf("%-18s %10d %8s %8s %10.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint.name + " (503)",
+                        latency.getCount(), "-", "-", latency.getCount() / seconds, latency.getPercentile(0.5),
+                        latency.getPercentile(0.99), latency.getPercentile(0.999), latency.getMax());
+            }
+        }
+    }
+
+    /**
+     * Simulates a single player.
+     *
+     * @param playerSeed
+     *            The seed of the player.
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws InterruptedException
+     *             If the current thread is interrupted while waiting for a
+     *             retry.
+     */
+    private void play(final long playerSeed) throws IOException, InterruptedException {
+        final Random random = new Random(playerSeed);
+        final char[] letters = (this.language == Language.GER ? LoadDriver.GERMAN_LETTERS : LoadDriver.ENGLISH_LETTERS)
+                .toCharArray();
+        for (int i = 0; i < letters.length - 1; i++) {
+            if (random.nextDouble() < LoadDriver.SWAP_PROBABILITY) {
+                final char temp = letters[i];
+                letters[i] = letters[i + 1];
+                letters[i + 1] = temp;
+            }
+        }
+
+        for (int i = 0; i < this.games; i++) {
+            JsonNode game = this.request(this.generate, "GET",
+                    "/api/games?lang=" + this.language + "&seed=" + random.nextLong(), null);
+            if (game == null) {
+                continue;
+            }
+            final String path = "/api/games/" + game.path("id").asText();
+            int next = 0;
+            while (game != null) {
+                if (game.path("solved").asBoolean()) {
+                    this.solved.increment();
+                    break;
+                }
+                if (game.path("lost").asBoolean() || next == letters.length) {
+                    this.lost.increment();
+                    break;
+                }
+                game = this.request(this.guess, "POST", path, "{\"character\":\"" + letters[next++] + "\"}");
+            }
+        }
+    }
+
+    /**
+     * Executes a request and records its latency. A request that is rejected
+     * is retried up to {@link #retries} times.
+     *
+     * @param endpoint
+     *            The endpoint to record the latency for.
+     * @param method
+     *            The HTTP method.
+     * @param path
+     *            The path (relative to {@link #url}).
+     * @param body
+     *            The JSON body, if any.
+     * @return The game contained in the response (property
+     *         <code>game</code>), or <code>null</code> if the request failed
+     *         or was still rejected after all retries.
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws InterruptedException
+     *             If the current thread is interrupted while waiting for a
+     *             retry.
+     */
+    private JsonNode request(final Endpoint endpoint, final String method, final String path, final String body)
+            throws IOException, InterruptedException {
+        for (int attempt = 0;; attempt++) {
+            final long start = System.nanoTime();
+            final HttpURLConnection connection = (HttpURLConnection) new URL(this.url + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setRequestProperty("Accept", "application/json");
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            final int status = connection.getResponseCode();
+            final byte[] response = LoadDriver.readFully(
+                    status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream() : connection.getErrorStream());
+            final long latency = System.nanoTime() - start;
+
+            if (status == HttpURLConnection.HTTP_UNAVAILABLE) {
+                endpoint.rejectedLatency.record(latency);
+                endpoint.rejected.increment();
+                if (attempt == this.retries) {
+                    endpoint.errors.increment();
+                    return null;
+                }
+                final String retryAfter = connection.getHeaderField("Retry-After");
+                TimeUnit.SECONDS.sleep(retryAfter == null ? 1 : Long.parseLong(retryAfter));
+                continue;
+            }
+            endpoint.latency.record(latency);
+            if (status / 100 != 2) {
+                endpoint.errors.increment();
+                return null;
+            }
+            return this.mapper.readTree(response).path("game");
+        }
+    }
+
+    /**
+     * Reads the given stream completely and closes it, so the connection can
+     * be reused.
+     *
+     * @param in
+     *            The stream to read, if any.
+     * @return The read bytes.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private static byte[] readFully(final InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream stream = in) {
+            final ByteArrayOutputStream result = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+            return result.toByteArray();
+        }
+    }
+
+    /**
+     * The statistics of a single endpoint.
+     *
+     */
+    @RequiredArgsConstructor
+    private static class Endpoint {
+        /**
+         * The name of the endpoint.
+         *
+         */
+        private final String name;
+        /**
+         * The latencies of all requests that were not rejected.
+         *
+         */
+        private final LatencyHistogram latency = new LatencyHistogram();
+        /**
+         * The latencies of all requests that were rejected with
+         * <code>503</code>.
+         *
+         */
+        private final LatencyHistogram rejectedLatency = new LatencyHistogram();
+        /**
+         * The number of failed requests.
+         *
+         */
+        private final LongAdder errors = new LongAdder();
+        /**
+         * The number of requests that were rejected with <code>503</code>.
+         *
+         */
+        private final LongAdder rejected = new LongAdder();
+    }
+}
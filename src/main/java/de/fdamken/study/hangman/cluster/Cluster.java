@@ -0,0 +1,244 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.cluster;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The view of this node on the cluster. The running games are distributed
+ * over the nodes using a {@link HashRing} over the game IDs, every node only
+ * keeps the games it owns.
+ *
+ * <p>
+ * The nodes are identified by their base URL (e.g.
+ * <code>http://localhost:8081</code>). They are given statically and/or by a
+ * file containing one node per line (empty lines and lines starting with
+ * <code>#</code> are ignored). The file is re-read periodically, so nodes can
+ * be added and removed at runtime. This node is always part of the ring.
+ * </p>
+ *
+ */
+@Slf4j
+public class Cluster implements AutoCloseable {
+    /**
+     * The executor that re-reads the files of all clusters.
+     *
+     */
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "cluster-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The base URL of this node.
+     *
+     */
+    @Getter
+    private final String self;
+    /**
+     * The statically given nodes.
+     *
+     */
+    private final Set<String> staticNodes;
+    /**
+     * The file containing the nodes, if any.
+     *
+     */
+    private final Path nodesFile;
+    /**
+     * The number of points per node on the ring.
+     *
+     */
+    private final int virtualNodes;
+    /**
+     * The periodic refresh, if any.
+     *
+     */
+    private final ScheduledFuture<?> refresh;
+
+    /**
+     * The current ring.
+     *
+     */
+    @Getter
+    private volatile HashRing ring;
+
+    /**
+     * Constructor of Cluster.
+     *
+     * @param self
+     *            The base URL of this node.
+     * @param staticNodes
+     *            The statically given nodes.
+     * @param nodesFile
+     *            The file containing the nodes, if any.
+     * @param virtualNodes
+     *            The number of points per node on the ring.
+     * @param refreshInterval
+     *            The interval between two reads of the file (in
+     *            milliseconds).
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public Cluster(final String self, final Collection<String> staticNodes, final Path nodesFile,
+            final int virtualNodes, final long refreshInterval) throws IOException {
+        this.self = Cluster.normalize(self);
+        this.staticNodes = new TreeSet<>();
+        for (final String node : staticNodes) {
+            if (!node.trim().isEmpty()) {
+                this.staticNodes.add(Cluster.normalize(node));
+            }
+        }
+        this.staticNodes.add(this.self);
+        this.nodesFile = nodesFile;
+        this.virtualNodes = virtualNodes;
+
+        this.refresh();
+        this.refresh = nodesFile == null ? null : Cluster.REFRESHER.scheduleWithFixedDelay(() -> {
+            try {
+                this.refresh();
+            } catch (final IOException | RuntimeException ex) {
+                Cluster.log.warn("Failed to refresh the cluster nodes from " + nodesFile + "!", ex);
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Re-reads the file containing the nodes and rebuilds the ring if the
+     * nodes have changed.
+     *
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public synchronized void refresh() throws IOException {
+        final Set<String> nodes = new TreeSet<>(this.staticNodes);
+        if (this.nodesFile != null) {
+            for (final String line : Files.readAllLines(this.nodesFile, StandardCharsets.UTF_8)) {
+                final String node = line.trim();
+                if (!node.isEmpty() && !node.startsWith("#")) {
+                    nodes.add(Cluster.normalize(node));
+                }
+            }
+        }
+
+        final HashRing current = this.ring;
+        if (current == null || !current.getNodes().equals(Cluster.list(nodes))) {
+            this.ring = new HashRing(nodes, this.virtualNodes);
+            Cluster.log.info("Cluster nodes: " + nodes);
+        }
+    }
+
+    /**
+     * Retrieves the owner of the game with the given ID.
+     *
+     * @param gameId
+     *            The ID of the game.
+     * @return The base URL of the owning node.
+     */
+    public String getOwner(final long gameId) {
+        return this.ring.getOwner(gameId);
+    }
+
+    /**
+     * Retrieves the owner of the game with the given ID if it is another
+     * node.
+     *
+     * @param gameId
+     *            The ID of the game.
+     * @return The base URL of the owning node, or <code>null</code> if this
+     *         node owns the game.
+     */
+    public String getRemoteOwner(final long gameId) {
+        final String owner = this.getOwner(gameId);
+        return owner.equals(this.self) ? null : owner;
+    }
+
+    /**
+     * Checks whether this node owns the game with the given ID.
+     *
+     * @param gameId
+     *            The ID of the game.
+     * @return Whether this node is the owner.
+     */
+    public boolean isLocal(final long gameId) {
+        return this.self.equals(this.getOwner(gameId));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        if (this.refresh != null) {
+            this.refresh.cancel(false);
+        }
+    }
+
+    /**
+     * Normalizes the given base URL by removing trailing slashes.
+     *
+     * @param node
+     *            The base URL.
+     * @return The normalized base URL.
+     */
+    private static String normalize(final String node) {
+        String result = node.trim();
+        while (result.endsWith("/")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Converts the given sorted set into a list for comparing it with
+     * {@link HashRing#getNodes()}.
+     *
+     * @param nodes
+     *            The nodes.
+     * @return The nodes as a list.
+     */
+    private static List<String> list(final Set<String> nodes) {
+        return new ArrayList<>(nodes);
+    }
+}
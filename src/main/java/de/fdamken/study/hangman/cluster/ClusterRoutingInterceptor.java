@@ -0,0 +1,251 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import de.fdamken.study.hangman.game.GameIds;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes the requests for games that are owned by another node of the
+ * {@link Cluster} to that node. Depending on the mode, the request is either
+ * forwarded to the owner and its response is copied back (so clients do not
+ * notice the cluster at all) or the client is redirected to the owner using
+ * <code>307 Temporary Redirect</code> (which saves the extra hop for clients
+ * that follow redirects).
+ *
+ * <p>
+ * Forwarded requests are marked with the header {@link #FORWARDED_HEADER} and
+ * are always handled locally, so requests never bounce between nodes that
+ * disagree about the ring.
+ * </p>
+ *
+ * <p>
+ * Forwarding blocks the request thread until the owner responded. Hence the
+ * number of concurrently forwarded requests is limited and further requests
+ * are rejected with <code>503 Service Unavailable</code> and a
+ * <code>Retry-After</code> header, like requests that exceed the capacity of
+ * the game executor.
+ * </p>
+ *
+ */
+@Slf4j
+public class ClusterRoutingInterceptor extends HandlerInterceptorAdapter {
+    /**
+     * The header that marks forwarded requests.
+     *
+     */
+    public static final String FORWARDED_HEADER = "X-Hangman-Forwarded";
+
+    /**
+     * The request headers that are copied when forwarding.
+     *
+     */
+    private static final String[] REQUEST_HEADERS = { "Content-Type", "Accept", "Accept-Language", "If-None-Match" };
+    /**
+     * The response headers that are copied back when forwarding.
+     *
+     */
+    private static final String[] RESPONSE_HEADERS = { "Content-Type", "ETag", "Retry-After" };
+    /**
+     * The timeout for connecting to and reading from the owner (in
+     * milliseconds).
+     *
+     */
+    private static final int TIMEOUT = 10000;
+
+    /**
+     * The {@link Cluster} that decides about the ownership.
+     *
+     */
+    private final Cluster cluster;
+    /**
+     * Whether the clients are redirected instead of forwarding the requests.
+     *
+     */
+    private final boolean redirect;
+    /**
+     * The permits for forwarding requests (one per concurrently forwarded
+     * request).
+     *
+     */
+    private final Semaphore forwards;
+    /**
+     * The number of seconds a client should wait before retrying a rejected
+     * request.
+     *
+     */
+    private final int retryAfter;
+
+    /**
+     * Constructor of ClusterRoutingInterceptor.
+     *
+     * @param cluster
+     *            The {@link Cluster} that decides about the ownership.
+     * @param redirect
+     *            Whether the clients are redirected instead of forwarding the
+     *            requests.
+     * @param maxForwards
+     *            The maximum number of concurrently forwarded requests.
+     * @param retryAfter
+     *            The number of seconds a client should wait before retrying a
+     *            request that was rejected because too many requests are
+     *            forwarded.
+     */
+    public ClusterRoutingInterceptor(final Cluster cluster, final boolean redirect, final int maxForwards,
+            final int retryAfter) {
+        if (maxForwards <= 0) {
+            throw new IllegalArgumentException("Max forwards must be positive!");
+        }
+
+        this.cluster = cluster;
+        this.redirect = redirect;
+        this.forwards = new Semaphore(maxForwards);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.servlet.handler.HandlerInterceptorAdapter#preHandle(javax.servlet.http.HttpServletRequest,
+     *      javax.servlet.http.HttpServletResponse, java.lang.Object)
+     */
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler)
+            throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || request.getHeader(ClusterRoutingInterceptor.FORWARDED_HEADER) != null) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        final String gameId = variables == null ? null : variables.get("gameId");
+        if (gameId == null) {
+            return true;
+        }
+
+        final String owner;
+        try {
+            owner = this.cluster.getOwner(GameIds.decode(gameId));
+        } catch (final IllegalArgumentException ex) {
+            // Invalid IDs are rejected by the controller.
+            return true;
+        }
+        if (owner.equals(this.cluster.getSelf())) {
+            return true;
+        }
+
+        final String target = owner + request.getRequestURI()
+                + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        if (this.redirect) {
+            response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+            response.setHeader("Location", target);
+        } else if (this.forwards.tryAcquire()) {
+            try {
+                this.forward(request, response, target);
+            } finally {
+                this.forwards.release();
+            }
+        } else {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(this.retryAfter));
+        }
+        return false;
+    }
+
+    /**
+     * Forwards the given request to the given URL and copies the response
+     * back.
+     *
+     * @param request
+     *            The request to forward.
+     * @param response
+     *            The response to copy the response of the owner into.
+     * @param target
+     *            The URL to forward the request to.
+     * @throws IOException
+     *             If the response cannot be written.
+     */
+    private void forward(final HttpServletRequest request, final HttpServletResponse response, final String target)
+            throws IOException {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(target).openConnection();
+            connection.setConnectTimeout(ClusterRoutingInterceptor.TIMEOUT);
+            connection.setReadTimeout(ClusterRoutingInterceptor.TIMEOUT);
+            connection.setInstanceFollowRedirects(false);
+            connection.setRequestMethod(request.getMethod());
+            connection.setRequestProperty(ClusterRoutingInterceptor.FORWARDED_HEADER, this.cluster.getSelf());
+            for (final String header : ClusterRoutingInterceptor.REQUEST_HEADERS) {
+                final String value = request.getHeader(header);
+                if (value != null) {
+                    connection.setRequestProperty(header, value);
+                }
+            }
+            if (request.getContentLength() > 0 || request.getHeader("Transfer-Encoding") != null) {
+                connection.setDoOutput(true);
+                try (final OutputStream out = connection.getOutputStream()) {
+                    StreamUtils.copy(request.getInputStream(), out);
+                }
+            }
+
+            final int status = connection.getResponseCode();
+            response.setStatus(status);
+            for (final String header : ClusterRoutingInterceptor.RESPONSE_HEADERS) {
+                final String value = connection.getHeaderField(header);
+                if (value != null) {
+                    response.setHeader(header, value);
+                }
+            }
+            try (final InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+                if (in != null) {
+                    StreamUtils.copy(in, response.getOutputStream());
+                }
+            }
+        } catch (final IOException ex) {
+            ClusterRoutingInterceptor.log.warn("Failed to forward the request to " + target + "!", ex);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+            }
+        }
+    }
+}
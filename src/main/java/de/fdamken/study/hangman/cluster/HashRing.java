@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An immutable consistent-hash ring over the nodes of a cluster. Every node is
+ * placed on the ring at several points (virtual nodes) and owns the keys whose
+ * hashes fall between its points and the previous points. Removing a node
+ * therefore only moves its keys to the remaining nodes, all other keys keep
+ * their owner.
+ *
+ */
+public class HashRing {
+    /**
+     * The default number of points per node.
+     *
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    /**
+     * The nodes (sorted).
+     *
+     */
+    private final List<String> nodes;
+    /**
+     * The sorted points of the ring.
+     *
+     */
+    private final long[] points;
+    /**
+     * The index of the node of every point in {@link #nodes}.
+     *
+     */
+    private final int[] owners;
+
+    /**
+     * Constructor of HashRing.
+     *
+     * @param nodes
+     *            The nodes. This must not be empty.
+     * @param virtualNodes
+     *            The number of points per node.
+     */
+    public HashRing(final Collection<String> nodes, final int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node!");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("The number of virtual nodes must be positive!");
+        }
+
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(nodes)));
+
+        // The points and their owners are sorted together by packing the
+        // point and the owner into a single entry.
+        final long[][] entries = new long[this.nodes.size() * virtualNodes][];
+        for (int node = 0; node < this.nodes.size(); node++) {
+            final long hash = HashRing.hash(this.nodes.get(node));
+            for (int i = 0; i < virtualNodes; i++) {
+                entries[node * virtualNodes + i] = new long[] { HashRing.mix(hash + i), node };
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            this.points[i] = entries[i][0];
+            this.owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * Retrieves the owner of the given key. That is the node of the first
+     * point that is greater than or equal to the hash of the key (wrapping
+     * around).
+     *
+     * @param key
+     *            The key (e.g. the ID of a game).
+     * @return The node that owns the key.
+     */
+    public String getOwner(final long key) {
+        final long hash = HashRing.mix(key);
+        int index = Arrays.binarySearch(this.points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return this.nodes.get(this.owners[index == this.points.length ? 0 : index]);
+    }
+
+    /**
+     *
+     * @return The nodes of this ring (sorted).
+     */
+    public List<String> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Hashes the given string (64 bit FNV-1a).
+     *
+     * @param value
+     *            The string to hash.
+     * @return The hash.
+     */
+    private static long hash(final String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes the bits of the given value (the finalizer of SplitMix64), so
+     * sequential values are spread evenly over the ring.
+     *
+     * @param value
+     *            The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(final long value) {
+        long result = value;
+        result = (result ^ result >>> 30) * 0xBF58476D1CE4E5B9L;
+        result = (result ^ result >>> 27) * 0x94D049BB133111EBL;
+        return result ^ result >>> 31;
+    }
+}
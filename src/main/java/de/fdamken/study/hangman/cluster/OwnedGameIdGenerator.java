@@ -0,0 +1,64 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.cluster;
+
+import de.fdamken.study.hangman.game.GameIdGenerator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@link GameIdGenerator} that only generates IDs that are owned by this
+ * node, so new games are always created on the node that owns them. The IDs
+ * of another generator are skipped until one is owned locally, which takes
+ * about as many tries as there are nodes.
+ *
+ */
+@RequiredArgsConstructor
+public class OwnedGameIdGenerator implements GameIdGenerator {
+    /**
+     * The {@link GameIdGenerator} that generates the original IDs.
+     *
+     */
+    private final GameIdGenerator delegate;
+    /**
+     * The {@link Cluster} that decides about the ownership.
+     *
+     */
+    private final Cluster cluster;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameIdGenerator#nextId()
+     */
+    @Override
+    public long nextId() {
+        long id;
+        do {
+            id = this.delegate.nextId();
+        } while (!this.cluster.isLocal(id));
+        return id;
+    }
+}
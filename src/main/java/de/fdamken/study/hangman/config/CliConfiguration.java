@@ -25,18 +25,14 @@
  */
 package de.fdamken.study.hangman.config;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnNotWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import de.fdamken.study.hangman.game.Game;
-import de.fdamken.study.hangman.game.GameGenerator;
-import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.CliRunner;
 
 /**
  * Configuration if the CLI client is used. This is the default.
@@ -46,66 +42,33 @@ import de.fdamken.study.hangman.game.GameGenerator.Language;
 @ConditionalOnNotWebApplication
 public class CliConfiguration {
     /**
-     * The number of mistakes one must make in order to loose.
+     * Creates the {@link CommandLineRunner} that is initialized by Spring and
+     * plays the games using a {@link CliRunner}.
      *
-     */
-    private static final int MISTAKES_TO_LOOSE = 11;
-
-    /**
-     * Creates the {@link Runner}.
+     * <p>
+     * Options that name a property (e.g.
+     * <code>--logging.level.root=WARN</code>) are consumed by Spring and
+     * therefore not passed to the {@link CliRunner}.
+     * </p>
      *
-     * @return The {@link Runner}.
+     * @return The {@link CommandLineRunner}.
      */
     @Bean
     public CommandLineRunner runner() {
-        return new Runner();
+        return args -> new CliRunner().run(Arrays.stream(args).filter(arg -> !CliConfiguration.isProperty(arg))
+                .toArray(String[]::new));
     }
 
     /**
-     * The {@link CommandLineRunner} that is initialized by Spring and executes
-     * like a normal main-method.
+     * Checks whether the given option names a property, that is whether its
+     * name contains a dot.
      *
+     * @param arg
+     *            The option to check.
+     * @return Whether the option names a property.
      */
-    public static class Runner implements CommandLineRunner {
-        /**
-         * {@inheritDoc}
-         *
-         * @see org.springframework.boot.CommandLineRunner#run(java.lang.String[])
-         */
-        @Override
-        public void run(final String... args) throws IOException {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-                final Game game = GameGenerator.generate(Language.GER);
-
-                System.out.println("A random GERMAN game was generated.");
-                System.out.println("Here is it: " + game.getMaskedWord());
-                System.out.println("You are allowed to do " + CliConfiguration.MISTAKES_TO_LOOSE + " mistakes!");
-                while (!game.isSolved() && game.getMistakeCount() <= CliConfiguration.MISTAKES_TO_LOOSE) {
-                    System.out.println();
-                    System.out.println("Word: " + game.getMaskedWord());
-                    System.out.println("Total mistakes: " + game.getMistakeCount());
-                    System.out.print("Please enter one character to guess: ");
-
-                    final String line = reader.readLine();
-                    if (line.length() == 1) {
-                        final char character = line.charAt(0);
-                        if (game.guess(character)) {
-                            System.out.println("That was correct!");
-                        } else {
-                            System.out.println("That was not correct!");
-                        }
-                    } else {
-                        System.out.println("Please enter exactly one character!");
-                    }
-                }
-                System.out.println();
-                if (game.isSolved()) {
-                    System.out.println("You won!");
-                } else {
-                    System.out.println("You lost!");
-                }
-                System.out.println("The word was: " + game.getWord());
-            }
-        }
+    private static boolean isProperty(final String arg) {
+        final int separator = arg.indexOf('=');
+        return arg.startsWith("--") && (separator < 0 ? arg : arg.substring(0, separator)).indexOf('.') >= 0;
     }
 }
@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import de.fdamken.study.hangman.cluster.Cluster;
+import de.fdamken.study.hangman.cluster.ClusterRoutingInterceptor;
+import de.fdamken.study.hangman.cluster.OwnedGameIdGenerator;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIdGenerator;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of the cluster mode in which the running games are
+ * distributed over multiple nodes (see {@link Cluster}). This is only active
+ * if <code>hangman.cluster.enabled</code> is set.
+ *
+ */
+@Configuration
+@ConditionalOnProperty("hangman.cluster.enabled")
+public class ClusterConfiguration {
+    /**
+     * Creates the {@link Cluster} and makes new games only use IDs that are
+     * owned by this node (see {@link OwnedGameIdGenerator}).
+     *
+     * @param generator
+     *            The {@link GameIdGenerator} that generates the original IDs.
+     * @param self
+     *            The base URL of this node as seen by the other nodes.
+     * @param nodes
+     *            The other nodes (comma separated base URLs).
+     * @param nodesFile
+     *            The file containing the nodes (one per line). It is re-read
+     *            periodically. No file is used if this is empty.
+     * @param refreshInterval
+     *            The interval between two reads of the file (in
+     *            milliseconds).
+     * @param virtualNodes
+     *            The number of points per node on the ring.
+     * @return The {@link Cluster}.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    @Bean(destroyMethod = "close")
+    public Cluster cluster(final GameIdGenerator generator,
+            @Value("${hangman.cluster.self:http://localhost:8080}") final String self,
+            @Value("${hangman.cluster.nodes:}") final String[] nodes,
+            @Value("${hangman.cluster.nodes-file:}") final String nodesFile,
+            @Value("${hangman.cluster.refresh-interval:10000}") final long refreshInterval,
+            @Value("${hangman.cluster.virtual-nodes:128}") final int virtualNodes) throws IOException {
+        final Cluster cluster = new Cluster(self, Arrays.asList(nodes),
+                nodesFile.isEmpty() ? null : Paths.get(nodesFile), virtualNodes, refreshInterval);
+        Game.setIdGenerator(new OwnedGameIdGenerator(generator, cluster));
+        return cluster;
+    }
+
+    /**
+     * Configuration of the routing of the requests for games that are owned by
+     * other nodes (see {@link ClusterRoutingInterceptor}). The condition is
+     * repeated, as nested configurations are also found by the component scan.
+     *
+     */
+    @Configuration
+    @ConditionalOnWebApplication
+    @ConditionalOnProperty("hangman.cluster.enabled")
+    @RequiredArgsConstructor
+    public static class ClusterWebConfiguration extends WebMvcConfigurerAdapter {
+        /**
+         * The {@link Cluster}.
+         *
+         */
+        private final Cluster cluster;
+
+        /**
+         * The routing mode: <code>forward</code> or <code>redirect</code>.
+         *
+         */
+        @Value("${hangman.cluster.routing:forward}")
+        private String routing;
+        /**
+         * The maximum number of concurrently forwarded requests.
+         *
+         */
+        @Value("${hangman.cluster.max-forwards:200}")
+        private int maxForwards;
+        /**
+         * The number of seconds a client should wait before retrying a
+         * rejected request.
+         *
+         */
+        @Value("${hangman.async.retry-after:1}")
+        private int retryAfter;
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter#addInterceptors(org.springframework.web.servlet.config.annotation.InterceptorRegistry)
+         */
+        @Override
+        public void addInterceptors(final InterceptorRegistry registry) {
+            final boolean redirect;
+            switch (this.routing.toLowerCase(Locale.ROOT)) {
+                case "forward":
+                    redirect = false;
+                    break;
+                case "redirect":
+                    redirect = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown routing mode " + this.routing + "!");
+            }
+            registry.addInterceptor(new ClusterRoutingInterceptor(this.cluster, redirect, this.maxForwards,
+                    this.retryAfter))
+                    .addPathPatterns("/api/games/**");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import de.fdamken.study.hangman.game.CompactGameRepository;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIdGenerator;
+import de.fdamken.study.hangman.game.GameJournal;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.InMemoryGameRepository;
+import de.fdamken.study.hangman.game.KeyedGameIdGenerator;
+import de.fdamken.study.hangman.game.TimeBasedGameIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of the game engine that is used by both the CLI and the web
+ * client.
+ *
+ */
+@Slf4j
+@Configuration
+public class GameConfiguration {
+    /**
+     * Creates the {@link GameRepository} that contains all running games and
+     * installs it into {@link Game}.
+     *
+     * @param store
+     *            The kind of the repository: <code>heap</code> keeps the
+     *            {@link Game} instances ({@link InMemoryGameRepository}),
+     *            <code>compact</code> keeps the state of the games in primitive
+     *            arrays ({@link CompactGameRepository}).
+     * @param maxSize
+     *            The maximum number of running games.
+     * @param idleTimeout
+     *            The time after which an unused game is evicted (in
+     *            milliseconds).
+     * @param sweepInterval
+     *            The interval between two sweeps for evicting games (in
+     *            milliseconds).
+     * @return The {@link GameRepository}.
+     */
+    @Bean(destroyMethod = "close")
+    public GameRepository gameRepository(@Value("${hangman.games.store:heap}") final String store,
+            @Value("${hangman.games.max-size:100000}") final int maxSize,
+            @Value("${hangman.games.idle-timeout:1800000}") final long idleTimeout,
+            @Value("${hangman.games.sweep-interval:60000}") final long sweepInterval) {
+        final GameRepository repository;
+        switch (store.toLowerCase(Locale.ROOT)) {
+            case "heap":
+                repository = new InMemoryGameRepository(maxSize, idleTimeout, sweepInterval);
+                break;
+            case "compact":
+                repository = new CompactGameRepository(maxSize, idleTimeout, sweepInterval);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown game store " + store + "!");
+        }
+        Game.setRepository(repository);
+        return repository;
+    }
+
+    /**
+     * Creates the {@link GameIdGenerator} that generates the IDs of new games
+     * and installs it into {@link Game}.
+     *
+     * @param scheme
+     *            The ID scheme: <code>time</code> uses
+     *            {@link TimeBasedGameIdGenerator time based IDs},
+     *            <code>keyed</code> permutes them using a secret key
+     *            ({@link KeyedGameIdGenerator}), so they cannot be guessed.
+     * @param node
+     *            The ID of this node.
+     * @param key
+     *            The secret key as a hexadecimal number. If this is empty, a
+     *            random key is used.
+     * @return The {@link GameIdGenerator}.
+     */
+    @Bean
+    public GameIdGenerator gameIdGenerator(@Value("${hangman.ids.scheme:keyed}") final String scheme,
+            @Value("${hangman.ids.node:0}") final int node, @Value("${hangman.ids.key:}") final String key) {
+        final GameIdGenerator generator;
+        switch (scheme.toLowerCase(Locale.ROOT)) {
+            case "time":
+                generator = new TimeBasedGameIdGenerator(node);
+                break;
+            case "keyed":
+                generator = new KeyedGameIdGenerator(new TimeBasedGameIdGenerator(node),
+                        key.isEmpty() ? new SecureRandom().nextLong() : Long.parseUnsignedLong(key, 16));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown ID scheme " + scheme + "!");
+        }
+        Game.setIdGenerator(generator);
+        return generator;
+    }
+
+    /**
+     * Creates the {@link GameJournal} that makes the running games survive
+     * restarts, replays it into the given repository and starts journaling.
+     * This is only active if <code>hangman.journal.enabled</code> is set.
+     *
+     * @param repository
+     *            The {@link GameRepository} to replay the journal into.
+     * @param directory
+     *            The directory that contains the journal.
+     * @param fsync
+     *            Whether the written records are forced to disk.
+     * @param compactionInterval
+     *            The interval between two compactions (in milliseconds).
+     * @return The {@link GameJournal}.
+     * @throws IOException
+     *             If any I/O error occurs while replaying the journal.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("hangman.journal.enabled")
+    public GameJournal gameJournal(final GameRepository repository,
+            @Value("${hangman.journal.directory:journal}") final String directory,
+            @Value("${hangman.journal.fsync:true}") final boolean fsync,
+            @Value("${hangman.journal.compaction-interval:300000}") final long compactionInterval) throws IOException {
+        final GameJournal journal = new GameJournal(Paths.get(directory), repository, fsync, compactionInterval);
+        final int count = journal.replay();
+        journal.start();
+        GameConfiguration.log.info("Restored {} running games from the journal.", count);
+        return journal;
+    }
+}
@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.GameStatistics;
+import de.fdamken.study.hangman.metrics.GameMetrics;
+
+/**
+ * Configuration of the metrics of the games.
+ *
+ */
+@Configuration
+public class MetricsConfiguration {
+    /**
+     * Creates the {@link GameStatistics} and registers them as a listener of
+     * all games.
+     *
+     * @return The {@link GameStatistics}.
+     */
+    @Bean
+    public GameStatistics gameStatistics() {
+        final GameStatistics statistics = new GameStatistics();
+        Game.addListener(statistics);
+        return statistics;
+    }
+
+    /**
+     * Creates the {@link GameMetrics} that publish the statistics through the
+     * actuator.
+     *
+     * @param statistics
+     *            The {@link GameStatistics}.
+     * @param repository
+     *            The {@link GameRepository} that contains the running games.
+     * @return The {@link GameMetrics}.
+     */
+    @Bean
+    public GameMetrics gameMetrics(final GameStatistics statistics, final GameRepository repository) {
+        return new GameMetrics(statistics, repository);
+    }
+}
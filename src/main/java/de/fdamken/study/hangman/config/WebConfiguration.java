@@ -0,0 +1,186 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.servlet.resource.GzipResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import de.fdamken.study.hangman.metrics.GameMetrics;
+import de.fdamken.study.hangman.metrics.LatencyInterceptor;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of the web client and the REST API.
+ *
+ * <p>
+ * The static assets are delivered with a hash of their content in the URL
+ * (e.g. <code>/js/hangman-&lt;md5&gt;.js</code>), so they can be cached by
+ * the client for a long time. The URLs in the templates (using
+ * <code>assets.url</code>, see
+ * {@link de.fdamken.study.hangman.controller.RootController RootController})
+ * and in stylesheets are rewritten accordingly. If
+ * the client accepts it, the gzipped variant that was created during the
+ * build (see {@link de.fdamken.study.hangman.tools.AssetCompressor
+ * AssetCompressor}) is delivered. Stylesheets are compressed by the server
+ * (see <code>server.compression</code>).
+ * </p>
+ *
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfiguration extends WebMvcConfigurerAdapter {
+    /**
+     * The locations of the static assets.
+     *
+     */
+    private static final String[] ASSET_LOCATIONS = { "classpath:/static/", "classpath:/public/" };
+
+    /**
+     * The {@link GameMetrics} to record the latencies into.
+     *
+     */
+    private final GameMetrics metrics;
+
+    /**
+     * The number of seconds the assets (with a content hash in their URL) may
+     * be cached.
+     *
+     */
+    @Value("${hangman.assets.cache-period:31536000}")
+    private long cachePeriod;
+    /**
+     * The number of seconds the assets in the root directory may be cached.
+     * These are also requested without a content hash (e.g. the favicon or the
+     * icons referenced by the manifest), so they must not be cached as long.
+     *
+     */
+    @Value("${hangman.assets.root-cache-period:86400}")
+    private long rootCachePeriod;
+
+    /**
+     * Creates the executor that executes the asynchronous requests of the REST
+     * API. The executor has a bounded queue and rejects tasks if it is full.
+     *
+     * @param threads
+     *            The number of threads. If this is not positive, the number
+     *            of processors is used.
+     * @param queueCapacity
+     *            The maximum number of waiting tasks.
+     * @return The executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor gameExecutor(@Value("${hangman.async.threads:0}") final int threads,
+            @Value("${hangman.async.queue-capacity:1000}") final int queueCapacity) {
+        final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "game-executor-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Creates the interceptor that adds <code>Vary: Accept-Encoding</code> to
+     * the responses of the resource handlers, as the assets are delivered
+     * gzipped or not depending on the request. The {@link GzipResourceResolver}
+     * does not add the header itself. The interceptor is mapped to all handler
+     * mappings, but responses of other handlers (e.g. of the REST API or the
+     * WebSocket handshake) are left untouched.
+     *
+     * @return The interceptor.
+     */
+    @Bean
+    public MappedInterceptor varyAcceptEncodingInterceptor() {
+        return new MappedInterceptor(null, new HandlerInterceptorAdapter() {
+            @Override
+            public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response,
+                    final Object handler) {
+                if (handler instanceof ResourceHttpRequestHandler) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter#addResourceHandlers(org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry)
+     */
+    @Override
+    public void addResourceHandlers(final ResourceHandlerRegistry registry) {
+        this.configureAssets(registry.addResourceHandler("/*"), this.rootCachePeriod);
+        this.configureAssets(registry.addResourceHandler("/**"), this.cachePeriod);
+    }
+
+    /**
+     * Configures the given resource handler to deliver the static assets.
+     *
+     * @param registration
+     *            The registration of the resource handler.
+     * @param cachePeriod
+     *            The number of seconds the assets may be cached.
+     */
+    private void configureAssets(final ResourceHandlerRegistration registration, final long cachePeriod) {
+        registration.addResourceLocations(WebConfiguration.ASSET_LOCATIONS)
+                .setCacheControl(CacheControl.maxAge(cachePeriod, TimeUnit.SECONDS).cachePublic()).resourceChain(true)
+                .addResolver(new GzipResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter#addInterceptors(org.springframework.web.servlet.config.annotation.InterceptorRegistry)
+     */
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new LatencyInterceptor(this.metrics)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.fdamken.study.hangman.cluster.Cluster;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.rest.GameWebSocketHandler;
+import de.fdamken.study.hangman.rest.PartyWebSocketHandler;
+import de.fdamken.study.hangman.rest.WebSocketSender;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Configuration of the WebSocket endpoints that push game updates
+ * (<code>/ws/games</code>, see {@link GameWebSocketHandler}) and that are used
+ * for playing parties (<code>/ws/parties</code>, see
+ * {@link PartyWebSocketHandler}).
+ *
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication
+@RequiredArgsConstructor
+public class WebSocketConfiguration implements WebSocketConfigurer {
+    /**
+     * The {@link ObjectMapper} for reading and writing the messages.
+     *
+     */
+    private final ObjectMapper mapper;
+    /**
+     * The {@link Cluster} this node belongs to, if clustering is enabled.
+     *
+     */
+    private final ObjectProvider<Cluster> cluster;
+
+    /**
+     * The number of threads that send the messages.
+     *
+     */
+    @Value("${hangman.websocket.send-threads:4}")
+    private int sendThreads;
+    /**
+     * The maximum number of messages that are queued per session before it is
+     * closed.
+     *
+     */
+    @Value("${hangman.websocket.queue-limit:256}")
+    private int queueLimit;
+    /**
+     * The maximum time a single send may take (in milliseconds).
+     *
+     */
+    @Value("${hangman.websocket.send-time-limit:5000}")
+    private long sendTimeLimit;
+
+    /**
+     * Creates the {@link WebSocketSender} that sends the messages of all
+     * WebSocket handlers in the background.
+     *
+     * @return The {@link WebSocketSender}.
+     */
+    @Bean(destroyMethod = "close")
+    public WebSocketSender webSocketSender() {
+        return new WebSocketSender(this.sendThreads, this.queueLimit, this.sendTimeLimit);
+    }
+
+    /**
+     * Creates the {@link GameWebSocketHandler} and registers it as a listener
+     * of all games.
+     *
+     * @return The {@link GameWebSocketHandler}.
+     */
+    @Bean
+    public GameWebSocketHandler gameWebSocketHandler() {
+        final GameWebSocketHandler handler = new GameWebSocketHandler(this.mapper, this.webSocketSender(),
+                this.cluster.getIfAvailable());
+        Game.addListener(handler);
+        return handler;
+    }
+
+    /**
+     * Creates the {@link PartyWebSocketHandler}.
+     *
+     * @return The {@link PartyWebSocketHandler}.
+     */
+    @Bean
+    public PartyWebSocketHandler partyWebSocketHandler() {
+        return new PartyWebSocketHandler(this.mapper, this.webSocketSender(), this.cluster.getIfAvailable());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.config.annotation.WebSocketConfigurer#registerWebSocketHandlers(org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry)
+     */
+    @Override
+    public void registerWebSocketHandlers(final WebSocketHandlerRegistry registry) {
+        registry.addHandler(this.gameWebSocketHandler(), "/ws/games");
+        registry.addHandler(this.partyWebSocketHandler(), "/ws/parties");
+    }
+}
@@ -25,23 +25,319 @@
  */
 package de.fdamken.study.hangman.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+import org.springframework.web.servlet.view.freemarker.FreeMarkerConfig;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * The controller for the web root (<code>/</code>).
  *
+ * <p>
+ * The main page only differs in the language, so it is rendered once per
+ * {@link Language} when the application is ready and delivered from memory
+ * afterwards (gzipped if the client accepts it). The language is chosen using
+ * the <code>Accept-Language</code> header. If
+ * <code>hangman.main-page.reload</code> is set (for development), the page is
+ * rendered again whenever one of its {@link #TEMPLATES templates} changed.
+ * </p>
+ *
  */
+@Slf4j
 @Controller
+@ConditionalOnWebApplication
 @RequestMapping("/")
+@RequiredArgsConstructor
 public class RootController {
     /**
-     * Delivers the main templates.
+     * The templates the main page consists of. The first one is rendered.
+     *
+     */
+    private static final String[] TEMPLATES = { "main.ftl", "hangman.ftl" };
+    /**
+     * The language that is used if the client does not accept any of the
+     * supported languages.
+     *
+     */
+    private static final Language DEFAULT_LANGUAGE = Language.ENG;
+    /**
+     * The content type of the main page.
+     *
+     */
+    private static final MediaType CONTENT_TYPE = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    /**
+     * The {@link FreeMarkerConfig} containing the templates.
+     *
+     */
+    private final FreeMarkerConfig freeMarker;
+    /**
+     * The {@link ResourceUrlProvider} for looking up the URLs of the assets.
      *
-     * @return The name of the main template.
+     */
+    private final ResourceUrlProvider resourceUrlProvider;
+    /**
+     * The {@link ServletContext}.
+     *
+     */
+    private final ServletContext servletContext;
+    /**
+     * The rendered pages per language.
+     *
+     */
+    private final Map<Language, Page> pages = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the pages are rendered again if the templates changed.
+     *
+     */
+    @Value("${hangman.main-page.reload:false}")
+    private boolean reload;
+
+    /**
+     * Renders the pages of all languages.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws TemplateException
+     *             If the template cannot be rendered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderPages() throws IOException, TemplateException {
+        for (final Language language : Language.values()) {
+            this.pages.put(language, this.render(language));
+        }
+        RootController.log.info("Rendered the main page for " + this.pages.keySet() + ".");
+    }
+
+    /**
+     * Delivers the main page in the language of the client.
+     *
+     * @param request
+     *            The current request.
+     * @param webRequest
+     *            The current request for checking the <code>ETag</code>.
+     * @return The main page wrapped inside a {@link ResponseEntity}.
+     *         <code>null</code> if the page was not modified (the response is
+     *         already completed then).
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws TemplateException
+     *             If the template cannot be rendered.
      */
     @RequestMapping
-    public String handleRequest() {
-        return "main";
+    public ResponseEntity<byte[]> handleRequest(final HttpServletRequest request, final WebRequest webRequest)
+            throws IOException, TemplateException {
+        final Language language = RootController.language(request);
+        Page page = this.pages.get(language);
+        if (page == null || this.reload && !page.getTemplates().equals(this.loadTemplates())) {
+            page = this.render(language);
+            this.pages.put(language, page);
+        }
+
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        final boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        final String eTag = gzip ? page.getGzipETag() : page.getETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(RootController.CONTENT_TYPE)
+                .cacheControl(CacheControl.noCache()).eTag(eTag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzipped());
+        }
+        return response.body(page.getContent());
+    }
+
+    /**
+     * Renders the main page in the given language.
+     *
+     * @param language
+     *            The {@link Language} of the page.
+     * @return The rendered {@link Page}.
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @throws TemplateException
+     *             If the template cannot be rendered.
+     */
+    private Page render(final Language language) throws IOException, TemplateException {
+        final List<Template> templates = this.loadTemplates();
+
+        final Map<String, Object> model = new HashMap<>();
+        model.put("language", language.name());
+        model.put("locale", language.getLocale().substring(0, 2));
+        model.put("assets", new Assets(this.servletContext.getContextPath(), this.resourceUrlProvider));
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(content, StandardCharsets.UTF_8)) {
+            templates.get(0).process(model, writer);
+        }
+        final ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzipped) {
+            {
+                this.def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            content.writeTo(out);
+        }
+        return new Page(templates, content.toByteArray(), gzipped.toByteArray());
+    }
+
+    /**
+     * Loads the {@link #TEMPLATES templates} of the main page. FreeMarker
+     * returns the same instances until a template changed.
+     *
+     * @return The templates.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private List<Template> loadTemplates() throws IOException {
+        final List<Template> templates = new ArrayList<>(RootController.TEMPLATES.length);
+        for (final String name : RootController.TEMPLATES) {
+            templates.add(this.freeMarker.getConfiguration().getTemplate(name));
+        }
+        return templates;
+    }
+
+    /**
+     * Chooses the {@link Language} for the given request using the
+     * <code>Accept-Language</code> header.
+     *
+     * @param request
+     *            The request.
+     * @return The first supported {@link Language} the client accepts, or
+     *         {@link #DEFAULT_LANGUAGE} if there is none.
+     */
+    private static Language language(final HttpServletRequest request) {
+        for (final Locale locale : Collections.list(request.getLocales())) {
+            for (final Language language : Language.values()) {
+                if (language.getLocale().startsWith(locale.getLanguage() + "_")) {
+                    return language;
+                }
+            }
+        }
+        return RootController.DEFAULT_LANGUAGE;
+    }
+
+    /**
+     * A rendered main page.
+     *
+     */
+    @Getter
+    private static class Page {
+        /**
+         * The templates the page was rendered from.
+         *
+         */
+        private final List<Template> templates;
+        /**
+         * The content of the page.
+         *
+         */
+        private final byte[] content;
+        /**
+         * The gzipped content of the page.
+         *
+         */
+        private final byte[] gzipped;
+        /**
+         * The <code>ETag</code> of the content.
+         *
+         */
+        private final String eTag;
+        /**
+         * The <code>ETag</code> of the gzipped content.
+         *
+         */
+        private final String gzipETag;
+
+        /**
+         * Constructor of Page.
+         *
+         * @param templates
+         *            The templates the page was rendered from.
+         * @param content
+         *            The content of the page.
+         * @param gzipped
+         *            The gzipped content of the page.
+         */
+        Page(final List<Template> templates, final byte[] content, final byte[] gzipped) {
+            this.templates = templates;
+            this.content = content;
+            this.gzipped = gzipped;
+            final String hash = DigestUtils.md5DigestAsHex(content);
+            this.eTag = "\"" + hash + "\"";
+            this.gzipETag = "\"" + hash + "-gzip\"";
+        }
+    }
+
+    /**
+     * Resolves the URLs of the assets that contain the content hash (see
+     * {@link de.fdamken.study.hangman.config.WebConfiguration}). This is
+     * available as <code>assets</code> in the templates.
+     *
+     */
+    @RequiredArgsConstructor
+    public static class Assets {
+        /**
+         * The context path of the application.
+         *
+         */
+        private final String contextPath;
+        /**
+         * The {@link ResourceUrlProvider} for looking up the URLs.
+         *
+         */
+        private final ResourceUrlProvider resourceUrlProvider;
+
+        /**
+         * Resolves the URL of the given asset.
+         *
+         * @param path
+         *            The path of the asset relative to the context path.
+         * @return The URL of the asset.
+         */
+        public String url(final String path) {
+            final String url = this.resourceUrlProvider.getForLookupPath(path);
+            return this.contextPath + (url == null ? path : url);
+        }
     }
 }
@@ -0,0 +1,768 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.Getter;
+
+/**
+ * A {@link GameRepository} that keeps the state of all games in primitive
+ * arrays (one array per property, indexed by a slot) instead of keeping the
+ * {@link Game} instances. This needs about 65 bytes per game, so millions of
+ * games fit onto a moderately sized heap.
+ *
+ * <p>
+ * Games whose word was chosen from a {@link Dictionary} only store the index of
+ * the word; other words are kept in a separate map. The slots are looked up by
+ * the ID using an open addressing hash table and the slots of removed games
+ * are reused. The capacity is fixed: If all slots are in use, a game that was
+ * not used recently is evicted using the clock algorithm, so saving a game
+ * takes constant time on average. Idle games are evicted by a periodic sweep
+ * in batches.
+ * </p>
+ *
+ * <p>
+ * {@link #find(long)} returns a new {@link Game} that is built from the stored
+ * state (a view). Guesses on a view are executed under the lock of its slot:
+ * The latest stored state is loaded into the view before and written back
+ * afterwards (see {@link #modify(Game, Supplier)}), so concurrent guesses
+ * through different views of the same game are not lost.
+ * </p>
+ *
+ * <p>
+ * A change holds the read lock and the lock of a stripe that is shared with
+ * unrelated games. Hence a change (including the {@link GameListener
+ * listeners} it notifies) must not access this repository: Saving or removing
+ * a game would need the write lock, which cannot be acquired while holding the
+ * read lock, and finding another game could deadlock on the stripes. Such an
+ * access is rejected with an {@link IllegalStateException}.
+ * </p>
+ *
+ */
+public class CompactGameRepository implements GameRepository, AutoCloseable {
+    /**
+     * The maximum capacity (the hash table has up to four times as many
+     * entries).
+     *
+     */
+    public static final int MAX_CAPACITY = 1 << 28;
+
+    /**
+     * The flag of a slot that is in use.
+     *
+     */
+    private static final byte FLAG_USED = 1;
+    /**
+     * The flag of a slot whose game was used since the clock hand passed it
+     * the last time.
+     *
+     */
+    private static final byte FLAG_REFERENCED = 2;
+    /**
+     * The maximum number of distinct dictionaries that are referenced by
+     * index (there may be multiple dictionaries per language due to reloads).
+     * Words of further dictionaries are stored as separate words.
+     *
+     */
+    private static final int MAX_DICTIONARIES = 255;
+    /**
+     * The number of locks that guard the slots.
+     *
+     */
+    private static final int LOCK_STRIPES = 64;
+    /**
+     * The number of slots that are swept while holding the write lock once.
+     *
+     */
+    private static final int SWEEP_BATCH_SIZE = 4096;
+    /**
+     * All languages by their ordinal.
+     *
+     */
+    private static final Language[] LANGUAGES = Language.values();
+
+    /**
+     * The executor that runs the sweeps of all repositories.
+     *
+     */
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "compact-game-repository-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The maximum number of games.
+     *
+     */
+    @Getter
+    private final int capacity;
+    /**
+     * The time after which an unused game is evicted (in milliseconds).
+     *
+     */
+    @Getter
+    private final long idleTimeout;
+    /**
+     * The time the access times are relative to (in milliseconds).
+     *
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    /**
+     * The IDs of the games.
+     *
+     */
+    private final long[] ids;
+    /**
+     * The flags of the slots (see {@link #FLAG_USED} and
+     * {@link #FLAG_REFERENCED}).
+     *
+     */
+    private final byte[] flags;
+    /**
+     * The indices of the dictionaries in {@link #dictionaries} plus one, or
+     * <code>0</code> if the word is stored in {@link #words}.
+     *
+     */
+    private final byte[] dictionaryIndices;
+    /**
+     * The indices of the words in their dictionaries.
+     *
+     */
+    private final int[] wordIndices;
+    /**
+     * The ordinals of the languages of the games plus one, or <code>0</code>
+     * if the language is not known.
+     *
+     */
+    private final byte[] languages;
+    /**
+     * The correctly guessed letters as bit masks.
+     *
+     */
+    private final int[] guessedMasks;
+    /**
+     * The wrongly guessed letters as bit masks.
+     *
+     */
+    private final int[] wrongMasks;
+    /**
+     * The numbers of mistakes.
+     *
+     */
+    private final int[] mistakeCounts;
+    /**
+     * The numbers of mistakes one must make in order to loose.
+     *
+     */
+    private final int[] maxMistakes;
+    /**
+     * The versions of the games.
+     *
+     */
+    private final long[] versions;
+    /**
+     * The times the games were used last (in seconds since {@link #epoch}).
+     *
+     */
+    private final int[] lastAccesses;
+
+    /**
+     * The hash table that maps the IDs to the slots. Every entry contains the
+     * slot plus one, or <code>0</code> if the entry is empty. Collisions are
+     * resolved by linear probing.
+     *
+     */
+    private final int[] table;
+    /**
+     * The slots that are not in use (a stack).
+     *
+     */
+    private final int[] freeSlots;
+    /**
+     * The number of slots in {@link #freeSlots}.
+     *
+     */
+    private int freeCount;
+    /**
+     * The next slot the clock hand inspects when a game has to be evicted.
+     *
+     */
+    private int clockHand;
+    /**
+     * The dictionaries that are referenced by {@link #dictionaryIndices}.
+     *
+     */
+    private final List<Dictionary> dictionaries = new ArrayList<>();
+    /**
+     * Contains the words that are not referenced by a dictionary packed by
+     * their slot.
+     *
+     */
+    private final Map<Integer, String> words = new HashMap<>();
+
+    /**
+     * Guards the structure (i.e. the hash table, the free slots, the
+     * dictionaries and the words). Changing the state of a game only needs the
+     * read lock and the lock of its stripe.
+     *
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * The locks of the slots (slot modulo {@link #LOCK_STRIPES}).
+     *
+     */
+    private final Object[] stripes = new Object[CompactGameRepository.LOCK_STRIPES];
+    /**
+     * The number of games.
+     *
+     */
+    private volatile int size;
+    /**
+     * The number of games that were evicted because they were idle.
+     *
+     */
+    private final AtomicLong idleEvictionCount = new AtomicLong();
+    /**
+     * The number of games that were evicted because the capacity was
+     * exhausted.
+     *
+     */
+    private final AtomicLong capacityEvictionCount = new AtomicLong();
+    /**
+     * The periodic sweep.
+     *
+     */
+    private final ScheduledFuture<?> sweep;
+
+    /**
+     * Constructor of CompactGameRepository.
+     *
+     * @param capacity
+     *            The maximum number of games.
+     * @param idleTimeout
+     *            The time after which an unused game is evicted (in
+     *            milliseconds).
+     * @param sweepInterval
+     *            The interval between two sweeps (in milliseconds).
+     */
+    public CompactGameRepository(final int capacity, final long idleTimeout, final long sweepInterval) {
+        if (capacity <= 0 || capacity > CompactGameRepository.MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity must be positive and must not exceed " + CompactGameRepository.MAX_CAPACITY + "!");
+        }
+        if (idleTimeout <= 0 || sweepInterval <= 0) {
+            throw new IllegalArgumentException("Timeout and interval must be positive!");
+        }
+
+        this.capacity = capacity;
+        this.idleTimeout = idleTimeout;
+        this.ids = new long[capacity];
+        this.flags = new byte[capacity];
+        this.dictionaryIndices = new byte[capacity];
+        this.wordIndices = new int[capacity];
+        this.languages = new byte[capacity];
+        this.guessedMasks = new int[capacity];
+        this.wrongMasks = new int[capacity];
+        this.mistakeCounts = new int[capacity];
+        this.maxMistakes = new int[capacity];
+        this.versions = new long[capacity];
+        this.lastAccesses = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Object();
+        }
+        this.sweep = CompactGameRepository.SWEEPER.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#save(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void save(final Game game) {
+        this.checkNotModifying();
+        final Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            int slot = this.lookup(game.getId());
+            if (slot < 0) {
+                if (this.freeCount == 0) {
+                    this.evictNotRecentlyUsed();
+                }
+                slot = this.freeSlots[--this.freeCount];
+                this.ids[slot] = game.getId();
+                this.flags[slot] = CompactGameRepository.FLAG_USED | CompactGameRepository.FLAG_REFERENCED;
+                this.insert(slot);
+                this.size++;
+            }
+
+            final int dictionaryIndex = this.dictionaryIndex(game.getDictionary());
+            this.dictionaryIndices[slot] = (byte) dictionaryIndex;
+            if (dictionaryIndex == 0) {
+                this.wordIndices[slot] = -1;
+                this.words.put(slot, game.getWord());
+            } else {
+                this.wordIndices[slot] = game.getWordIndex();
+                this.words.remove(slot);
+            }
+            this.languages[slot] = (byte) (game.getLanguage() == null ? 0 : game.getLanguage().ordinal() + 1);
+            synchronized (game) {
+                this.guessedMasks[slot] = game.getGuessedMask();
+                this.wrongMasks[slot] = game.getWrongMask();
+                this.mistakeCounts[slot] = game.getMistakeCount();
+                this.maxMistakes[slot] = game.getMaxMistakes();
+                this.versions[slot] = game.getVersion();
+            }
+            this.lastAccesses[slot] = this.now();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The change is executed under the lock of the slot of the game. If the
+     * game is not stored (anymore), only the given view is changed. The change
+     * must not access this repository (see {@link CompactGameRepository}).
+     * </p>
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#modify(de.fdamken.study.hangman.game.Game,
+     *      java.util.function.Supplier)
+     */
+    @Override
+    public <T> T modify(final Game game, final Supplier<T> change) {
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            final int slot = this.lookup(game.getId());
+            if (slot < 0) {
+                synchronized (game) {
+                    return change.get();
+                }
+            }
+            synchronized (this.stripes[slot % CompactGameRepository.LOCK_STRIPES]) {
+                synchronized (game) {
+                    game.load(this.guessedMasks[slot], this.wrongMasks[slot], this.mistakeCounts[slot],
+                            this.versions[slot]);
+                    final T result = change.get();
+                    this.guessedMasks[slot] = game.getGuessedMask();
+                    this.wrongMasks[slot] = game.getWrongMask();
+                    this.mistakeCounts[slot] = game.getMistakeCount();
+                    this.versions[slot] = game.getVersion();
+                    this.touch(slot);
+                    return result;
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#find(long)
+     */
+    @Override
+    public Game find(final long gameId) {
+        this.checkNotModifying();
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            final int slot = this.lookup(gameId);
+            if (slot < 0) {
+                return null;
+            }
+            synchronized (this.stripes[slot % CompactGameRepository.LOCK_STRIPES]) {
+                this.touch(slot);
+                return this.view(slot);
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#findAll()
+     */
+    @Override
+    public List<Game> findAll() {
+        this.checkNotModifying();
+        final Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            final List<Game> result = new ArrayList<>(this.size);
+            for (int slot = 0; slot < this.capacity; slot++) {
+                if ((this.flags[slot] & CompactGameRepository.FLAG_USED) != 0) {
+                    synchronized (this.stripes[slot % CompactGameRepository.LOCK_STRIPES]) {
+                        result.add(this.view(slot));
+                    }
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#remove(long)
+     */
+    @Override
+    public void remove(final long gameId) {
+        this.checkNotModifying();
+        final Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            final int slot = this.lookup(gameId);
+            if (slot >= 0) {
+                this.free(slot);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#size()
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#getEvictionCount()
+     */
+    @Override
+    public long getEvictionCount() {
+        return this.idleEvictionCount.get() + this.capacityEvictionCount.get();
+    }
+
+    /**
+     *
+     * @return The number of games that were evicted because they were idle.
+     */
+    public long getIdleEvictionCount() {
+        return this.idleEvictionCount.get();
+    }
+
+    /**
+     *
+     * @return The number of games that were evicted because the capacity was
+     *         exhausted.
+     */
+    public long getCapacityEvictionCount() {
+        return this.capacityEvictionCount.get();
+    }
+
+    /**
+     * Evicts all idle games. This is executed periodically in the background.
+     * The slots are swept in batches, so other operations are only blocked
+     * for a short time.
+     *
+     */
+    public void sweep() {
+        final int idleSince = this.now() - (int) TimeUnit.MILLISECONDS.toSeconds(this.idleTimeout);
+        final Lock writeLock = this.lock.writeLock();
+        for (int start = 0; start < this.capacity; start += CompactGameRepository.SWEEP_BATCH_SIZE) {
+            writeLock.lock();
+            try {
+                this.evictIdle(start, Math.min(start + CompactGameRepository.SWEEP_BATCH_SIZE, this.capacity),
+                        idleSince);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic sweep. The games are kept.
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        this.sweep.cancel(false);
+    }
+
+    /**
+     * Checks that the current thread does not execute a change (see
+     * {@link #modify(Game, Supplier)}), as it would deadlock otherwise.
+     *
+     * @throws IllegalStateException
+     *             If the current thread executes a change.
+     */
+    private void checkNotModifying() {
+        if (this.lock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("The repository must not be accessed while changing a game!");
+        }
+    }
+
+    /**
+     * Builds a view of the game in the given slot. The caller has to hold the
+     * lock of the slot.
+     *
+     * @param slot
+     *            The slot of the game.
+     * @return The {@link Game}.
+     */
+    private Game view(final int slot) {
+        final int dictionaryIndex = this.dictionaryIndices[slot] & 0xFF;
+        final Dictionary dictionary;
+        final String word;
+        if (dictionaryIndex == 0) {
+            dictionary = null;
+            word = this.words.get(slot);
+        } else {
+            dictionary = this.dictionaries.get(dictionaryIndex - 1);
+            word = dictionary.getWord(this.wordIndices[slot]);
+        }
+        final int language = this.languages[slot];
+        return Game.restore(this.ids[slot], language == 0 ? null : CompactGameRepository.LANGUAGES[language - 1], dictionary,
+                this.wordIndices[slot], word, this.maxMistakes[slot], this.guessedMasks[slot], this.wrongMasks[slot],
+                this.mistakeCounts[slot], this.versions[slot]);
+    }
+
+    /**
+     * Returns the index of the given dictionary in {@link #dictionaries} plus
+     * one. The dictionary is added if necessary. The caller has to hold the
+     * write lock.
+     *
+     * @param dictionary
+     *            The {@link Dictionary}, if any.
+     * @return The index plus one, or <code>0</code> if the dictionary is
+     *         <code>null</code> or if there are too many dictionaries.
+     */
+    private int dictionaryIndex(final Dictionary dictionary) {
+        if (dictionary == null) {
+            return 0;
+        }
+        for (int i = 0; i < this.dictionaries.size(); i++) {
+            if (this.dictionaries.get(i) == dictionary) {
+                return i + 1;
+            }
+        }
+        if (this.dictionaries.size() == CompactGameRepository.MAX_DICTIONARIES) {
+            return 0;
+        }
+        this.dictionaries.add(dictionary);
+        return this.dictionaries.size();
+    }
+
+    /**
+     * Evicts the idle games within the given range of slots. The caller has
+     * to hold the write lock.
+     *
+     * @param start
+     *            The first slot (inclusive).
+     * @param end
+     *            The last slot (exclusive).
+     * @param idleSince
+     *            The time (see {@link #now()}) before which a game must have
+     *            been used last in order to be evicted.
+     */
+    private void evictIdle(final int start, final int end, final int idleSince) {
+        for (int slot = start; slot < end; slot++) {
+            if ((this.flags[slot] & CompactGameRepository.FLAG_USED) != 0 && this.lastAccesses[slot] < idleSince) {
+                this.free(slot);
+                this.idleEvictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Evicts a game that was not used recently using the clock algorithm:
+     * The clock hand passes the slots and clears their referenced flag until
+     * it finds a slot without the flag. The caller has to hold the write lock
+     * and all slots have to be in use.
+     *
+     */
+    private void evictNotRecentlyUsed() {
+        while (true) {
+            final int slot = this.clockHand;
+            this.clockHand = slot + 1 == this.capacity ? 0 : slot + 1;
+            if ((this.flags[slot] & CompactGameRepository.FLAG_REFERENCED) != 0) {
+                this.flags[slot] = CompactGameRepository.FLAG_USED;
+            } else {
+                this.free(slot);
+                this.capacityEvictionCount.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Marks the given slot as used. The caller has to hold the lock of the
+     * slot.
+     *
+     * @param slot
+     *            The slot.
+     */
+    private void touch(final int slot) {
+        this.lastAccesses[slot] = this.now();
+        this.flags[slot] = CompactGameRepository.FLAG_USED | CompactGameRepository.FLAG_REFERENCED;
+    }
+
+    /**
+     * Removes the game in the given slot and makes the slot reusable. The
+     * caller has to hold the write lock.
+     *
+     * @param slot
+     *            The slot to free.
+     */
+    private void free(final int slot) {
+        this.delete(slot);
+        this.flags[slot] = 0;
+        this.words.remove(slot);
+        this.freeSlots[this.freeCount++] = slot;
+        this.size--;
+    }
+
+    /**
+     * Looks up the slot of the game with the given ID.
+     *
+     * @param gameId
+     *            The ID of the game.
+     * @return The slot, or <code>-1</code> if the game does not exist.
+     */
+    private int lookup(final long gameId) {
+        final int mask = this.table.length - 1;
+        for (int i = CompactGameRepository.hash(gameId) & mask; this.table[i] != 0; i = i + 1 & mask) {
+            final int slot = this.table[i] - 1;
+            if (this.ids[slot] == gameId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts the given slot into the hash table.
+     *
+     * @param slot
+     *            The slot to insert.
+     */
+    private void insert(final int slot) {
+        final int mask = this.table.length - 1;
+        int i = this.home(slot);
+        while (this.table[i] != 0) {
+            i = i + 1 & mask;
+        }
+        this.table[i] = slot + 1;
+    }
+
+    /**
+     * Deletes the given slot from the hash table. The following entries are
+     * shifted back, so no tombstones are needed.
+     *
+     * @param slot
+     *            The slot to delete.
+     */
+    private void delete(final int slot) {
+        final int mask = this.table.length - 1;
+        int hole = this.home(slot);
+        while (this.table[hole] != slot + 1) {
+            hole = hole + 1 & mask;
+        }
+        this.table[hole] = 0;
+        for (int i = hole + 1 & mask; this.table[i] != 0; i = i + 1 & mask) {
+            final int home = this.home(this.table[i] - 1);
+            // The entry may only be moved if its home is not within
+            // (hole, i] (cyclically).
+            final boolean reachable = hole <= i ? home > hole && home <= i : home > hole || home <= i;
+            if (!reachable) {
+                this.table[hole] = this.table[i];
+                this.table[i] = 0;
+                hole = i;
+            }
+        }
+    }
+
+    /**
+     * Computes the position in the hash table the given slot belongs to.
+     *
+     * @param slot
+     *            The slot.
+     * @return The position.
+     */
+    private int home(final int slot) {
+        return CompactGameRepository.hash(this.ids[slot]) & this.table.length - 1;
+    }
+
+    /**
+     *
+     * @return The current time in seconds since {@link #epoch}.
+     */
+    private int now() {
+        return (int) TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - this.epoch);
+    }
+
+    /**
+     * Computes the hash of an ID. Time based IDs differ in few bits only, so
+     * the bits are mixed.
+     *
+     * @param gameId
+     *            The ID.
+     * @return The hash.
+     */
+    private static int hash(final long gameId) {
+        final long hash = gameId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ hash >>> 32);
+    }
+}
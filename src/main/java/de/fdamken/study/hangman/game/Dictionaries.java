@@ -0,0 +1,321 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the {@link Dictionary dictionaries} of all {@link Language languages}.
+ * Every dictionary is loaded only once (lazily on first use) and is shared
+ * between all callers afterwards.
+ *
+ * <p>
+ * Precompiled binary dictionaries (<code>*.bdict</code>, see
+ * {@link DictionaryCompiler}) are memory-mapped and preferred over text
+ * dictionaries (<code>*.dict</code>), which have to be parsed onto the heap.
+ * </p>
+ *
+ * <p>
+ * If a dictionary is loaded from a plain file (e.g. when running from an IDE
+ * or an exploded archive), the file is checked for modifications at most every
+ * {@link #RELOAD_CHECK_INTERVAL} milliseconds. A changed file is reloaded in
+ * the background and the new dictionary is swapped in atomically afterwards;
+ * callers are never blocked by a reload and keep on using the old dictionary
+ * until the new one is ready.
+ * </p>
+ *
+ */
+@Slf4j
+@UtilityClass
+public class Dictionaries {
+    /**
+     * The minimum interval between two modification checks of a dictionary
+     * file (in milliseconds).
+     *
+     */
+    private static final long RELOAD_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+
+    /**
+     * Contains all loaded dictionaries packed by their language.
+     *
+     */
+    private static final Map<Language, Entry> DICTIONARIES = new ConcurrentHashMap<>();
+
+    /**
+     * The executor that is used for reloading changed dictionaries.
+     *
+     */
+    private static final ExecutorService RELOADER = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "dictionary-reloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Retrieves the dictionary of the given language, loading it if
+     * necessary.
+     *
+     * @param language
+     *            The {@link Language} to retrieve the dictionary of.
+     * @return The {@link Dictionary}.
+     * @throws IOException
+     *             If any I/O error occurs while loading the dictionary for the
+     *             first time.
+     */
+    public Dictionary get(final Language language) throws IOException {
+        Entry entry = Dictionaries.DICTIONARIES.get(language);
+        if (entry == null) {
+            synchronized (Dictionaries.DICTIONARIES) {
+                entry = Dictionaries.DICTIONARIES.get(language);
+                if (entry == null) {
+                    entry = Dictionaries.load(language);
+                    Dictionaries.DICTIONARIES.put(language, entry);
+                }
+            }
+        }
+        entry.checkForModification();
+        return entry.dictionary;
+    }
+
+    /**
+     * Retrieves the dictionary of the given language without loading it.
+     *
+     * @param language
+     *            The {@link Language} to retrieve the dictionary of.
+     * @return The {@link Dictionary}, if it is loaded already. Otherwise
+     *         <code>null</code>.
+     */
+    public Dictionary getIfLoaded(final Language language) {
+        final Entry entry = Dictionaries.DICTIONARIES.get(language);
+        return entry == null ? null : entry.dictionary;
+    }
+
+    /**
+     * Retrieves the time it took to load the dictionary of the given language
+     * the last time.
+     *
+     * @param language
+     *            The {@link Language} of the dictionary.
+     * @return The time (in milliseconds), or <code>-1</code> if the
+     *         dictionary is not loaded.
+     */
+    public long getLoadTime(final Language language) {
+        final Entry entry = Dictionaries.DICTIONARIES.get(language);
+        return entry == null ? -1 : entry.loadTime;
+    }
+
+    /**
+     * Loads the dictionary of the given language from the classpath. Binary
+     * dictionaries are preferred over text dictionaries.
+     *
+     * @param language
+     *            The {@link Language} to load the dictionary of.
+     * @return The loaded dictionary {@link Entry}.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private Entry load(final Language language) throws IOException {
+        final ClassLoader classLoader = Dictionaries.class.getClassLoader();
+
+        final URL binary = classLoader.getResource(language.getLocale() + Dictionary.BINARY_EXTENSION);
+        final URL text = classLoader.getResource(language.getLocale() + Dictionary.TEXT_EXTENSION);
+        final Entry entry;
+        if (binary != null) {
+            entry = new Entry(binary, true);
+        } else if (text != null) {
+            entry = new Entry(text, false);
+        } else {
+            throw new FileNotFoundException("Dictionary " + language.getLocale() + " not found on the classpath!");
+        }
+        entry.reload();
+        return entry;
+    }
+
+    /**
+     * Converts the given URL to a file, if possible.
+     *
+     * @param url
+     *            The URL to convert.
+     * @return The file, if the URL points to a plain file. Otherwise
+     *         <code>null</code>.
+     */
+    private File toFile(final URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (final URISyntaxException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * A loaded dictionary with the information required for reloading it.
+     *
+     */
+    private static class Entry {
+        /**
+         * The URL to load the dictionary from.
+         *
+         */
+        private final URL url;
+        /**
+         * The file the dictionary is stored in, if any. Only dictionaries that
+         * are stored in a plain file are reloaded.
+         *
+         */
+        private final File file;
+        /**
+         * Whether {@link #url} points to a binary dictionary.
+         *
+         */
+        private final boolean binary;
+        /**
+         * Whether a reload is pending at the moment.
+         *
+         */
+        private final AtomicBoolean reloading = new AtomicBoolean();
+
+        /**
+         * The currently active dictionary.
+         *
+         */
+        private volatile Dictionary dictionary;
+        /**
+         * The time it took to load {@link #dictionary} (in milliseconds).
+         *
+         */
+        private volatile long loadTime;
+        /**
+         * The modification time of {@link #file} when it was loaded.
+         *
+         */
+        private volatile long lastModified;
+        /**
+         * The time of the last modification check.
+         *
+         */
+        private volatile long lastCheck;
+
+        /**
+         * Constructor of Entry.
+         *
+         * @param url
+         *            The URL to load the dictionary from.
+         * @param binary
+         *            Whether the URL points to a binary dictionary.
+         */
+        private Entry(final URL url, final boolean binary) {
+            this.url = url;
+            this.file = Dictionaries.toFile(url);
+            this.binary = binary;
+        }
+
+        /**
+         * (Re-)loads the dictionary and swaps it in afterwards.
+         *
+         * @throws IOException
+         *             If any I/O error occurs.
+         */
+        private void reload() throws IOException {
+            final long modified = this.file == null ? 0 : this.file.lastModified();
+            final long start = System.nanoTime();
+            final Dictionary dictionary;
+            if (this.binary && this.file != null) {
+                dictionary = Dictionary.map(this.file.toPath());
+            } else if (this.binary) {
+                // Resources inside of an archive cannot be mapped directly, so
+                // they are extracted once.
+                final Path temp = Files.createTempFile("hangman-", Dictionary.BINARY_EXTENSION);
+                temp.toFile().deleteOnExit();
+                try (InputStream in = this.url.openStream()) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                dictionary = Dictionary.map(temp);
+            } else {
+                try (InputStream in = this.url.openStream()) {
+                    dictionary = Dictionary.read(in);
+                }
+            }
+            // The index is built before the dictionary is swapped in.
+            dictionary.getIndex();
+            this.dictionary = dictionary;
+            this.loadTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            this.lastModified = modified;
+            this.lastCheck = System.currentTimeMillis();
+
+            Dictionaries.log.info("Loaded {} words from {} in {} ms.", dictionary.size(), this.url, this.loadTime);
+        }
+
+        /**
+         * Checks whether the dictionary file was modified and schedules a
+         * reload if so. This never blocks.
+         *
+         */
+        private void checkForModification() {
+            if (this.file == null) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            if (now - this.lastCheck < Dictionaries.RELOAD_CHECK_INTERVAL) {
+                return;
+            }
+            this.lastCheck = now;
+            if (this.file.lastModified() == this.lastModified || !this.reloading.compareAndSet(false, true)) {
+                return;
+            }
+
+            Dictionaries.RELOADER.execute(() -> {
+                try {
+                    this.reload();
+                } catch (final IOException ex) {
+                    Dictionaries.log.warn("Failed to reload dictionary " + this.url + "!", ex);
+                } finally {
+                    this.reloading.set(false);
+                }
+            });
+        }
+    }
+}
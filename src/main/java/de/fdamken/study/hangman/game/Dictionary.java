@@ -0,0 +1,380 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An immutable, compact word index of a dictionary. All words are stored
+ * back-to-back in a single buffer and are addressed by an offset table, so
+ * picking a word by its index is <code>O(1)</code> and does not require any
+ * per-word objects.
+ *
+ * <p>
+ * The buffer uses the binary dictionary format (see below) no matter whether
+ * it was parsed from a text dictionary or memory-mapped from a precompiled
+ * binary dictionary. In the latter case the words live off-heap and are read
+ * straight from the mapped file.
+ * </p>
+ *
+ * <p>
+ * The binary format consists of (all integers are big-endian):
+ * </p>
+ * <ol>
+ * <li>A header: The {@link #MAGIC magic number}, the {@link #VERSION format
+ * version}, the number of words <code>n</code> and the total length of the
+ * packed words.</li>
+ * <li>The offset table: <code>n + 1</code> integers, the word <code>i</code>
+ * starts at offset <code>i</code> (inclusive) and ends at offset
+ * <code>i + 1</code> (exclusive). The offsets are relative to the start of
+ * the packed words.</li>
+ * <li>The packed words (ASCII letters only, no separators).</li>
+ * </ol>
+ *
+ * <p>
+ * Only words that consist of ASCII letters are contained (everything else
+ * could not be used for a {@link Game} anyway).
+ * </p>
+ *
+ */
+public class Dictionary {
+    /**
+     * The magic number of binary dictionaries (<code>HMDC</code>).
+     *
+     */
+    public static final int MAGIC = 0x484D4443;
+    /**
+     * The version of the binary dictionary format.
+     *
+     */
+    public static final int VERSION = 1;
+    /**
+     * The file extension of binary dictionaries.
+     *
+     */
+    public static final String BINARY_EXTENSION = ".bdict";
+    /**
+     * The file extension of text dictionaries.
+     *
+     */
+    public static final String TEXT_EXTENSION = ".dict";
+
+    /**
+     * The size of the header in bytes.
+     *
+     */
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    /**
+     * The buffer containing the whole dictionary in the binary format.
+     *
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The number of words.
+     *
+     */
+    private final int size;
+    /**
+     * The position of the packed words inside of {@link #buffer}.
+     *
+     */
+    private final int dataStart;
+
+    /**
+     * The index of this dictionary (created lazily).
+     *
+     */
+    private volatile WordIndex index;
+    /**
+     * The solver index of this dictionary (created lazily).
+     *
+     */
+    private volatile SolverIndex solverIndex;
+
+    /**
+     * Constructor of Dictionary.
+     *
+     * @param buffer
+     *            The buffer containing the dictionary in the binary format.
+     * @throws IOException
+     *             If the buffer does not contain a valid binary dictionary.
+     */
+    private Dictionary(final ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < Dictionary.HEADER_SIZE || buffer.getInt(0) != Dictionary.MAGIC) {
+            throw new IOException("Not a binary dictionary!");
+        }
+        if (buffer.getInt(Integer.BYTES) != Dictionary.VERSION) {
+            throw new IOException("Unsupported binary dictionary version " + buffer.getInt(Integer.BYTES) + "!");
+        }
+
+        this.buffer = buffer;
+        this.size = buffer.getInt(2 * Integer.BYTES);
+        this.dataStart = Dictionary.HEADER_SIZE + (this.size + 1) * Integer.BYTES;
+
+        final int dataLength = buffer.getInt(3 * Integer.BYTES);
+        if (this.size < 0 || dataLength < 0 || (long) this.dataStart + dataLength != buffer.capacity()) {
+            throw new IOException("Binary dictionary is corrupt!");
+        }
+    }
+
+    /**
+     * Reads a text dictionary from the given stream. The stream must contain
+     * one word per line. Lines that are empty or contain anything but letters
+     * are skipped.
+     *
+     * <p>
+     * The stream is not closed by this method.
+     * </p>
+     *
+     * @param in
+     *            The stream to read from.
+     * @return The read {@link Dictionary}.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static Dictionary read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        final byte[] chunk = new byte[1 << 16];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        final byte[] raw = buffer.toByteArray();
+
+        // The words are compacted in place: A word is never longer than its
+        // line, so the write position never overtakes the read position.
+        int[] offsets = new int[1024];
+        int count = 0;
+        int write = 0;
+        int lineStart = 0;
+        for (int i = 0; i <= raw.length; i++) {
+            if (i < raw.length && raw[i] != '\n') {
+                continue;
+            }
+
+            int lineEnd = i;
+            if (lineEnd > lineStart && raw[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart && Dictionary.isWord(raw, lineStart, lineEnd)) {
+                if (count + 1 >= offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[count++] = write;
+                System.arraycopy(raw, lineStart, raw, write, lineEnd - lineStart);
+                write += lineEnd - lineStart;
+            }
+            lineStart = i + 1;
+        }
+        offsets[count] = write;
+
+        final ByteBuffer result = ByteBuffer.allocate(Dictionary.HEADER_SIZE + (count + 1) * Integer.BYTES + write);
+        result.putInt(Dictionary.MAGIC);
+        result.putInt(Dictionary.VERSION);
+        result.putInt(count);
+        result.putInt(write);
+        for (int i = 0; i <= count; i++) {
+            result.putInt(offsets[i]);
+        }
+        result.put(raw, 0, write);
+        return new Dictionary(result);
+    }
+
+    /**
+     * Memory-maps the binary dictionary stored in the given file. The file
+     * must not be modified in place afterwards (but it may be replaced).
+     *
+     * @param file
+     *            The file to map.
+     * @return The mapped {@link Dictionary}.
+     * @throws IOException
+     *             If any I/O error occurs or if the file does not contain a
+     *             valid binary dictionary.
+     */
+    public static Dictionary map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Dictionary(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Checks whether the given range of bytes consists of ASCII letters only.
+     *
+     * @param bytes
+     *            The bytes to check.
+     * @param from
+     *            The start of the range (inclusive).
+     * @param to
+     *            The end of the range (exclusive).
+     * @return Whether the range is a valid word.
+     */
+    private static boolean isWord(final byte[] bytes, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final int upper = bytes[i] & 0xDF;
+            if (upper < 'A' || upper > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes this dictionary in the binary format to the given stream.
+     *
+     * <p>
+     * The stream is not closed by this method.
+     * </p>
+     *
+     * @param out
+     *            The stream to write to.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public void write(final OutputStream out) throws IOException {
+        final ByteBuffer content = this.buffer.duplicate();
+        content.clear();
+        Channels.newChannel(out).write(content);
+    }
+
+    /**
+     *
+     * @return The number of words in this dictionary.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Retrieves the length of the word with the given index.
+     *
+     * @param index
+     *            The index of the word.
+     * @return The length of the word.
+     */
+    public int getLength(final int index) {
+        return this.offset(index + 1) - this.offset(index);
+    }
+
+    /**
+     * Retrieves the word with the given index.
+     *
+     * @param index
+     *            The index of the word.
+     * @return The word.
+     */
+    public String getWord(final int index) {
+        final int start = this.dataStart + this.offset(index);
+        final char[] word = new char[this.getLength(index)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) this.buffer.get(start + i);
+        }
+        return new String(word);
+    }
+
+    /**
+     * Retrieves the letters of the word with the given index as a bit mask
+     * (bit <code>0</code> is <code>A</code>, bit <code>25</code> is
+     * <code>Z</code>, case insensitive).
+     *
+     * @param index
+     *            The index of the word.
+     * @return The letter mask.
+     */
+    public int getLetterMask(final int index) {
+        final int start = this.dataStart + this.offset(index);
+        final int end = start + this.getLength(index);
+        int mask = 0;
+        for (int i = start; i < end; i++) {
+            mask |= 1 << ((this.buffer.get(i) & 0xDF) - 'A');
+        }
+        return mask;
+    }
+
+    /**
+     * Retrieves the {@link WordIndex} of this dictionary. The index is created
+     * on first use.
+     *
+     * @return The {@link WordIndex}.
+     */
+    public WordIndex getIndex() {
+        WordIndex result = this.index;
+        if (result == null) {
+            synchronized (this) {
+                result = this.index;
+                if (result == null) {
+                    result = new WordIndex(this);
+                    this.index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the {@link SolverIndex} of this dictionary. The index is
+     * created on first use.
+     *
+     * @return The {@link SolverIndex}.
+     */
+    public SolverIndex getSolverIndex() {
+        SolverIndex result = this.solverIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = this.solverIndex;
+                if (result == null) {
+                    result = new SolverIndex(this);
+                    this.solverIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the offset of the word with the given index.
+     *
+     * @param index
+     *            The index of the word.
+     * @return The offset relative to the start of the packed words.
+     */
+    private int offset(final int index) {
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        return this.buffer.getInt(Dictionary.HEADER_SIZE + index * Integer.BYTES);
+    }
+}
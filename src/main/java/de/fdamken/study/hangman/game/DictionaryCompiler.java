@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Compiles text dictionaries into binary dictionaries (see {@link Dictionary}
+ * for the format). This is executed during the build for every
+ * <code>*.dict</code> resource.
+ *
+ * <p>
+ * The binary dictionaries are written to a temporary file first and are moved
+ * into place afterwards, so a running application that has the old version
+ * mapped is never affected.
+ * </p>
+ *
+ */
+public class DictionaryCompiler {
+    /**
+     * The main method.
+     *
+     * @param args
+     *            The CLI arguments. These are the directories to compile all
+     *            text dictionaries in.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static void main(final String[] args) throws IOException {
+        for (final String arg : args) {
+            try (DirectoryStream<Path> dictionaries = Files.newDirectoryStream(Paths.get(arg),
+                    "*" + Dictionary.TEXT_EXTENSION)) {
+                for (final Path source : dictionaries) {
+                    DictionaryCompiler.compile(source);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles the given text dictionary into a binary dictionary next to it.
+     *
+     * @param source
+     *            The text dictionary to compile.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static void compile(final Path source) throws IOException {
+        final String name = source.getFileName().toString();
+        final Path target = source.resolveSibling(
+                name.substring(0, name.length() - Dictionary.TEXT_EXTENSION.length()) + Dictionary.BINARY_EXTENSION);
+
+        final Dictionary dictionary;
+        try (InputStream in = Files.newInputStream(source)) {
+            dictionary = Dictionary.read(in);
+        }
+
+        final Path temp = Files.createTempFile(target.getParent(), name, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                dictionary.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        System.out.println("Compiled " + dictionary.size() + " words from " + source + " into " + target + ".");
+    }
+}
@@ -25,21 +25,41 @@
  */
 package de.fdamken.study.hangman.game;
 
+import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 /**
  * Represents a single Hangman game with one word.
  *
+ * <p>
+ * The letters of the word and the guessed letters (the correct ones as well
+ * as the wrong ones) are stored as bit masks
+ * (bit <code>0</code> is <code>A</code>, bit <code>25</code> is
+ * <code>Z</code>) and the number of revealed positions is maintained
+ * incrementally, so a guess neither allocates nor has to rebuild the masked
+ * word. The masked word itself is kept in a buffer that is patched in place
+ * whenever a letter is revealed.
+ * </p>
+ *
+ * <p>
+ * Guesses are executed atomically by the {@link GameRepository} (see
+ * {@link GameRepository#modify(Game, java.util.function.Supplier)}), so
+ * concurrent guesses on the same game neither corrupt its state nor get lost.
+ * </p>
+ *
  */
 @Getter
 public class Game {
@@ -51,32 +71,108 @@ public class Game {
     private static final Pattern WORD_PATTERN = Pattern.compile("^[a-z]+$", Pattern.CASE_INSENSITIVE);
 
     /**
-     * Contains all running games packaed by their ID.
+     * The default number of mistakes one must make in order to loose.
      *
      */
-    private static final Map<UUID, Game> RUNNING_GAMES = new HashMap<>();
+    public static final int DEFAULT_MAX_MISTAKES = 11;
 
     /**
-     * The unique ID of this game.
+     * Contains all running games. The default {@link InMemoryGameRepository}
+     * is created lazily, so its sweeper is not started if another repository
+     * is set before (see {@link #getRepository()}).
+     *
+     */
+    private static volatile GameRepository repository;
+    /**
+     * Generates the IDs of new games.
      *
      */
-    private final UUID id = UUID.randomUUID();
+    private static volatile GameIdGenerator idGenerator = new KeyedGameIdGenerator(new TimeBasedGameIdGenerator(0),
+            new SecureRandom().nextLong());
+    /**
+     * The listeners that are notified about all games.
+     *
+     */
+    private static final List<GameListener> LISTENERS = new CopyOnWriteArrayList<>();
 
     /**
-     * All characters that the player has guessed already.
+     * The unique ID of this game. This is serialized as a token (see
+     * {@link GameIds}).
      *
      */
-    private final List<Character> guessedCharacters = new ArrayList<>();
+    @JsonSerialize(using = GameIds.Serializer.class)
+    private final long id;
+
     /**
      * The initial word.
      *
      */
     private final String word;
     /**
-     * The characters of the initial word.
+     * The language of {@link #word}, if the word was chosen from a dictionary.
+     * Otherwise <code>null</code>.
+     *
+     */
+    private final Language language;
+    /**
+     * The dictionary that contains {@link #word}, if the word was chosen from
+     * a dictionary. Otherwise <code>null</code>.
+     *
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Dictionary dictionary;
+    /**
+     * The index of {@link #word} in {@link #dictionary}, or <code>-1</code>
+     * if the word was not chosen from a dictionary.
+     *
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final int wordIndex;
+    /**
+     * The letters of {@link #word} as a bit mask.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final int letterMask;
+    /**
+     * All letters that the player has guessed correctly already as a bit
+     * mask.
+     *
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private int guessedMask;
+    /**
+     * All letters that the player has guessed wrong already as a bit mask.
+     *
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private int wrongMask;
+    /**
+     * The number of positions of {@link #word} that are revealed already.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private int revealedCount;
+    /**
+     * The masked word (see {@link #getMaskedWord()}). Only the positions of
+     * newly revealed letters are updated.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final char[] maskedBuffer;
+    /**
+     * The cached string of {@link #maskedBuffer}. This is reset on every
+     * correct guess and is created lazily.
      *
      */
-    private final List<Character> characters;
+    @Getter(AccessLevel.NONE)
+    private String maskedWord;
+
+    /**
+     * The number of mistakes one must make in order to loose.
+     *
+     */
+    private final int maxMistakes;
 
     /**
      * A mistake counter (one mistake is when the player guesses a wrong
@@ -89,22 +185,213 @@ public class Game {
      *
      */
     private boolean solved;
+    /**
+     * The version of the state of this game. This is incremented on every
+     * guess that changes the state.
+     *
+     */
+    private long version;
 
     /**
-     * Constructor of Game.
+     * Constructor of Game. Uses the {@link #DEFAULT_MAX_MISTAKES default
+     * number of mistakes}.
      *
      * @param word
      *            The word to use for the game. This must only contain letters.
      */
     public Game(final String word) {
+        this(word, Game.DEFAULT_MAX_MISTAKES);
+    }
+
+    /**
+     * Constructor of Game.
+     *
+     * @param word
+     *            The word to use for the game. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     */
+    public Game(final String word, final int maxMistakes) {
+        this(null, word, maxMistakes);
+    }
+
+    /**
+     * Constructor of Game.
+     *
+     * @param language
+     *            The {@link Language} of the custom word, if known. Otherwise
+     *            <code>null</code>.
+     * @param word
+     *            The word to use for the game. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     */
+    public Game(final Language language, final String word, final int maxMistakes) {
+        this(language, null, -1, word, maxMistakes);
+    }
+
+    /**
+     * Constructor of Game.
+     *
+     * @param language
+     *            The {@link Language} of the dictionary.
+     * @param dictionary
+     *            The {@link Dictionary} the word was chosen from.
+     * @param wordIndex
+     *            The index of the word in the dictionary.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     */
+    Game(final Language language, final Dictionary dictionary, final int wordIndex, final int maxMistakes) {
+        this(language, dictionary, wordIndex, dictionary.getWord(wordIndex), maxMistakes);
+    }
+
+    /**
+     * Constructor of Game.
+     *
+     * @param language
+     *            The {@link Language} of the dictionary, if any.
+     * @param dictionary
+     *            The {@link Dictionary} the word was chosen from, if any.
+     * @param wordIndex
+     *            The index of the word in the dictionary, if any. Otherwise
+     *            <code>-1</code>.
+     * @param word
+     *            The word to use for the game. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     */
+    private Game(final Language language, final Dictionary dictionary, final int wordIndex, final String word,
+            final int maxMistakes) {
+        this(Game.idGenerator.nextId(), language, dictionary, wordIndex, word, maxMistakes);
+
+        Game.getRepository().save(this);
+        for (final GameListener listener : Game.LISTENERS) {
+            listener.gameCreated(this);
+        }
+    }
+
+    /**
+     * Constructor of Game. The game is neither saved nor are the listeners
+     * notified.
+     *
+     * @param id
+     *            The ID of the game.
+     * @param language
+     *            The {@link Language} of the dictionary, if any.
+     * @param dictionary
+     *            The {@link Dictionary} the word was chosen from, if any.
+     * @param wordIndex
+     *            The index of the word in the dictionary, if any. Otherwise
+     *            <code>-1</code>.
+     * @param word
+     *            The word to use for the game. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     */
+    private Game(final long id, final Language language, final Dictionary dictionary, final int wordIndex,
+            final String word, final int maxMistakes) {
         if (!Game.WORD_PATTERN.matcher(word).matches()) {
             throw new IllegalArgumentException("Word must only contain letters!");
         }
+        if (maxMistakes <= 0) {
+            throw new IllegalArgumentException("Max mistakes must be positive!");
+        }
 
-        this.word = word.toUpperCase();
-        this.characters = this.word.chars().mapToObj(x -> (char) x).collect(Collectors.toList());
+        this.id = id;
+        this.language = language;
+        this.dictionary = dictionary;
+        this.wordIndex = wordIndex;
+        this.word = word.toUpperCase(Locale.ROOT);
+        int letterMask = 0;
+        for (int i = 0; i < this.word.length(); i++) {
+            letterMask |= Game.bit(this.word.charAt(i));
+        }
+        this.letterMask = letterMask;
+        this.maxMistakes = maxMistakes;
 
-        Game.RUNNING_GAMES.put(this.id, this);
+        this.maskedBuffer = new char[this.word.length() * 2 - 1];
+        Arrays.fill(this.maskedBuffer, ' ');
+        for (int i = 0; i < this.word.length(); i++) {
+            this.maskedBuffer[i * 2] = '_';
+        }
+    }
+
+    /**
+     * Restores a game from its state (e.g. from a journal). The game is
+     * neither saved nor are the listeners notified.
+     *
+     * @param id
+     *            The ID of the game.
+     * @param language
+     *            The {@link Language} of the word, if any.
+     * @param dictionary
+     *            The {@link Dictionary} the word was chosen from, if any.
+     * @param wordIndex
+     *            The index of the word in the dictionary, if any. Otherwise
+     *            <code>-1</code>.
+     * @param word
+     *            The word of the game.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose.
+     * @param guessedMask
+     *            The letters that were guessed correctly as a bit mask.
+     * @param wrongMask
+     *            The letters that were guessed wrong as a bit mask.
+     * @param mistakeCount
+     *            The number of mistakes.
+     * @param version
+     *            The version of the state.
+     * @return The restored game.
+     */
+    static Game restore(final long id, final Language language, final Dictionary dictionary, final int wordIndex,
+            final String word, final int maxMistakes, final int guessedMask, final int wrongMask,
+            final int mistakeCount, final long version) {
+        final Game game = new Game(id, language, dictionary, wordIndex, word, maxMistakes);
+        game.load(guessedMask, wrongMask, mistakeCount, version);
+        return game;
+    }
+
+    /**
+     * Loads the given state into this game (e.g. the latest state that is
+     * stored by a repository that hands out copies). Nothing is done if the
+     * game already has the given version. This must be called while being
+     * synchronized on this game.
+     *
+     * @param guessedMask
+     *            The letters that were guessed correctly as a bit mask.
+     * @param wrongMask
+     *            The letters that were guessed wrong as a bit mask.
+     * @param mistakeCount
+     *            The number of mistakes.
+     * @param version
+     *            The version of the state.
+     */
+    void load(final int guessedMask, final int wrongMask, final int mistakeCount, final long version) {
+        if (version == this.version) {
+            return;
+        }
+
+        this.guessedMask = 0;
+        this.revealedCount = 0;
+        this.solved = false;
+        this.maskedWord = null;
+        for (int i = 0; i < this.word.length(); i++) {
+            this.maskedBuffer[i * 2] = '_';
+        }
+        for (int bit = 1; bit != 0 && bit <= guessedMask; bit <<= 1) {
+            if ((guessedMask & bit) != 0) {
+                this.apply(bit);
+            }
+        }
+        this.wrongMask = wrongMask;
+        this.mistakeCount = mistakeCount;
+        this.version = version;
     }
 
     /**
@@ -114,8 +401,85 @@ public class Game {
      *            The ID of the game to find.
      * @return The game, if any. Otherwise <code>null</code>.
      */
-    public static Game getGame(final UUID gameId) {
-        return Game.RUNNING_GAMES.get(gameId);
+    public static Game getGame(final long gameId) {
+        return Game.getRepository().find(gameId);
+    }
+
+    /**
+     *
+     * @return The {@link GameRepository} that contains all running games.
+     */
+    public static GameRepository getRepository() {
+        GameRepository result = Game.repository;
+        if (result == null) {
+            synchronized (Game.class) {
+                result = Game.repository;
+                if (result == null) {
+                    result = new InMemoryGameRepository();
+                    Game.repository = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sets the {@link GameRepository} that contains all running games. Games
+     * that are contained in the old repository are not moved.
+     *
+     * @param repository
+     *            The {@link GameRepository} to use.
+     */
+    public static void setRepository(final GameRepository repository) {
+        Game.repository = repository;
+    }
+
+    /**
+     *
+     * @return The {@link GameIdGenerator} that generates the IDs of new games.
+     */
+    public static GameIdGenerator getIdGenerator() {
+        return Game.idGenerator;
+    }
+
+    /**
+     * Sets the {@link GameIdGenerator} that generates the IDs of new games.
+     *
+     * @param idGenerator
+     *            The {@link GameIdGenerator} to use.
+     */
+    public static void setIdGenerator(final GameIdGenerator idGenerator) {
+        Game.idGenerator = idGenerator;
+    }
+
+    /**
+     * Adds a listener that is notified about all games.
+     *
+     * @param listener
+     *            The {@link GameListener} to add.
+     */
+    public static void addListener(final GameListener listener) {
+        Game.LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added using
+     * {@link #addListener(GameListener)}.
+     *
+     * @param listener
+     *            The {@link GameListener} to remove.
+     */
+    public static void removeListener(final GameListener listener) {
+        Game.LISTENERS.remove(listener);
+    }
+
+    /**
+     *
+     * @return Whether this game is lost, i.e. if the player has made
+     *         {@link #maxMistakes} mistakes.
+     */
+    public boolean isLost() {
+        return this.mistakeCount >= this.maxMistakes;
     }
 
     /**
@@ -137,10 +501,12 @@ public class Game {
      * <li>If the player has guessed correctly, the character is marked as
      * guessed and <code>true</code> is returned. If this finished the game,
      * {@link #solved} is set to <code>true</code> and the game is removed from
-     * the {@link #RUNNING_GAMES running games}.</li>
-     * <li>If the player has guessed wrong, {@link #mistakeCount} is incremented
-     * and <code>false</code> is returned. No matter whether the player has
-     * already tried the character.</li>
+     * the {@link #repository running games}.</li>
+     * <li>If the player has guessed wrong, the character is marked as guessed
+     * wrong, {@link #mistakeCount} is incremented and <code>false</code> is
+     * returned. No matter whether the player has
+     * already tried the character. If this lost the game, the game is removed
+     * from the {@link #repository running games}.</li>
      * </ul>
      *
      * @param rawCharacter
@@ -149,22 +515,96 @@ public class Game {
      */
     public boolean guess(final char rawCharacter) {
         final char character = Character.toUpperCase(rawCharacter);
-        if (this.guessedCharacters.contains(character)) {
-            return true;
+        final int bit = Game.bit(character);
+        final GameRepository repository = Game.getRepository();
+        final boolean correct = repository.modify(this, () -> {
+            final boolean wasFinished = this.solved || this.isLost();
+            final boolean result = this.apply(bit);
+            final boolean finished = this.solved || this.isLost();
+            // The listeners are notified within the change, so they see the
+            // guesses of a game in the order of their versions.
+            for (final GameListener listener : Game.LISTENERS) {
+                listener.guessed(this, character, result);
+                if (finished && !wasFinished) {
+                    listener.gameFinished(this);
+                }
+            }
+            return result;
+        });
+        // A finished game stays finished, so this cannot remove a running game.
+        if (this.solved || this.isLost()) {
+            repository.remove(this.id);
+        }
+        return correct;
+    }
+
+    /**
+     * Replays a guess (e.g. from a journal). The guess is only applied if the
+     * given version is newer than the version of this game, so replaying a
+     * guess multiple times has no effect. The game is neither removed nor are
+     * the listeners notified.
+     *
+     * @param character
+     *            The upper case character to guess.
+     * @param version
+     *            The version of the game after the guess.
+     */
+    synchronized void replay(final char character, final long version) {
+        if (version > this.version) {
+            this.apply(Game.bit(character));
+            this.version = version;
         }
-        if (this.characters.contains(character)) {
-            this.guessedCharacters.add(character);
-            if (!this.getMaskedWord().contains("_")) {
-                Game.RUNNING_GAMES.remove(this.id);
+    }
 
+    /**
+     * Applies a guess to the state of this game (see {@link #guess(char)}).
+     *
+     * @param bit
+     *            The bit of the guessed character (see {@link #bit(char)}).
+     * @return Whether the guess was correct.
+     */
+    private boolean apply(final int bit) {
+        if ((this.guessedMask & bit) != 0) {
+            return true;
+        }
+        this.version++;
+        if ((this.letterMask & bit) != 0) {
+            this.guessedMask |= bit;
+            this.revealedCount += this.reveal(bit);
+            this.maskedWord = null;
+            if (this.revealedCount == this.word.length()) {
                 this.solved = true;
             }
             return true;
         }
+        this.wrongMask |= bit;
         this.mistakeCount++;
         return false;
     }
 
+    /**
+     *
+     * @return All characters that the player has guessed correctly already
+     *         (in alphabetical order).
+     */
+    public List<Character> getGuessedCharacters() {
+        final List<Character> result = new ArrayList<>(Integer.bitCount(this.guessedMask));
+        for (int i = 0; i < 26; i++) {
+            if ((this.guessedMask & 1 << i) != 0) {
+                result.add((char) ('A' + i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     *
+     * @return The characters of the initial word.
+     */
+    public List<Character> getCharacters() {
+        return this.word.chars().mapToObj(x -> (char) x).collect(Collectors.toList());
+    }
+
     /**
      *
      * @return The masked word. That is all characters that where not guessed
@@ -174,7 +614,43 @@ public class Game {
      */
     @JsonProperty
     public String getMaskedWord() {
-        return this.characters.stream().map(x -> this.guessedCharacters.contains(x) ? String.valueOf(x) : "_")
-                .collect(Collectors.joining(" "));
+        String result = this.maskedWord;
+        if (result == null) {
+            result = new String(this.maskedBuffer);
+            this.maskedWord = result;
+        }
+        return result;
+    }
+
+    /**
+     * Reveals all positions of {@link #word} that contain the given letter in
+     * the {@link #maskedBuffer}.
+     *
+     * @param bit
+     *            The bit of the letter (see {@link #bit(char)}).
+     * @return The number of revealed positions.
+     */
+    private int reveal(final int bit) {
+        int count = 0;
+        for (int i = 0; i < this.word.length(); i++) {
+            final char character = this.word.charAt(i);
+            if (Game.bit(character) == bit) {
+                this.maskedBuffer[i * 2] = character;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the bit of the given upper case letter.
+     *
+     * @param character
+     *            The upper case letter.
+     * @return The bit of the letter, or <code>0</code> if the character is
+     *         not a letter between <code>A</code> and <code>Z</code>.
+     */
+    private static int bit(final char character) {
+        return character >= 'A' && character <= 'Z' ? 1 << character - 'A' : 0;
     }
 }
@@ -25,27 +25,25 @@
  */
 package de.fdamken.study.hangman.game;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.security.SecureRandom;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.UtilityClass;
 
 /**
- * A game generator is used to parse the dictionaries on the classpath and
- * chooses a random word from them and creates a {@link Game}.
+ * A game generator is used to choose a random word from the
+ * {@link Dictionaries dictionaries} on the classpath and creates a
+ * {@link Game}.
  *
  */
 @UtilityClass
 public class GameGenerator {
     /**
-     * The RNG.
+     * The default source of random numbers.
      *
      */
-    private static final SecureRandom RANDOM = new SecureRandom();
+    private static volatile RandomSource randomSource = ThreadLocalRandomSource.INSTANCE;
 
     /**
      * Generates a {@link Game} with a random word in the given
@@ -58,31 +56,98 @@ public class GameGenerator {
      *             If any I/O error occurs.
      */
     public Game generate(final Language language) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                GameGenerator.class.getClassLoader().getResourceAsStream(language.getLocale() + ".dict")))) {
-            // This chooses a random word from the word list by using reservoir
-            // sampling (https://en.wikipedia.org/wiki/Reservoir_sampling).
-            //
-            // The result is initialized as null.
-            // The 1. line has a chance of 1/1 = 100% to replace the result.
-            // The 2. line has a chance of 1/2 = 50% to replace the result.
-            // The 3. line has a chance of 1/3 ≈ 33.3% to replace the result.
-            // The 4. line has a chance of 1/4 = 25% to replace the result.
-            // The 5. line has a chance of 1/5 = 12.5% to replace the result.
-            // ...
-            // The n. line has a chance of 1/n to replace the result.
+        return GameGenerator.generate(language, new WordConstraints());
+    }
+
+    /**
+     * Generates a {@link Game} with a random word in the given
+     * {@link Language} that matches the given {@link WordConstraints}.
+     *
+     * @param language
+     *            The {@link Language} to generate a {@link Game} for.
+     * @param constraints
+     *            The {@link WordConstraints} the word has to match.
+     * @return The generated {@link Game}, or <code>null</code> if no word
+     *         matches the constraints.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public Game generate(final Language language, final WordConstraints constraints) throws IOException {
+        return GameGenerator.generate(language, constraints, GameGenerator.randomSource);
+    }
+
+    /**
+     * Generates a {@link Game} with a random word in the given
+     * {@link Language} that matches the given {@link WordConstraints} using
+     * the given {@link RandomSource}.
+     *
+     * @param language
+     *            The {@link Language} to generate a {@link Game} for.
+     * @param constraints
+     *            The {@link WordConstraints} the word has to match.
+     * @param random
+     *            The {@link RandomSource} to choose the word with (e.g. a
+     *            {@link SeededRandomSource} for reproducible games).
+     * @return The generated {@link Game}, or <code>null</code> if no word
+     *         matches the constraints.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public Game generate(final Language language, final WordConstraints constraints, final RandomSource random)
+            throws IOException {
+        return GameGenerator.generate(language, constraints, random, Game.DEFAULT_MAX_MISTAKES);
+    }
 
-            String result = null;
-            int n = 0;
-            String line = null;
-            while ((line = reader.readLine()) != null) {
-                n++;
-                if (GameGenerator.RANDOM.nextInt(n) == 0) {
-                    result = line;
-                }
+    /**
+     * Generates a {@link Game} with a random word in the given
+     * {@link Language} that matches the given {@link WordConstraints} using
+     * the given {@link RandomSource} and number of mistakes.
+     *
+     * @param language
+     *            The {@link Language} to generate a {@link Game} for.
+     * @param constraints
+     *            The {@link WordConstraints} the word has to match.
+     * @param random
+     *            The {@link RandomSource} to choose the word with.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose. This
+     *            must be positive.
+     * @return The generated {@link Game}, or <code>null</code> if no word
+     *         matches the constraints.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public Game generate(final Language language, final WordConstraints constraints, final RandomSource random,
+            final int maxMistakes) throws IOException {
+        final Dictionary dictionary = Dictionaries.get(language);
+        if (constraints.isUnconstrained()) {
+            if (dictionary.size() == 0) {
+                throw new IOException("Dictionary of " + language + " does not contain any words!");
             }
-            return new Game(result);
+            return new Game(language, dictionary, random.nextInt(dictionary.size()), maxMistakes);
         }
+
+        final int index = dictionary.getIndex().choose(constraints, random);
+        return index < 0 ? null : new Game(language, dictionary, index, maxMistakes);
+    }
+
+    /**
+     *
+     * @return The default {@link RandomSource}.
+     */
+    public RandomSource getRandomSource() {
+        return GameGenerator.randomSource;
+    }
+
+    /**
+     * Sets the default {@link RandomSource}. The {@link RandomSource} has to be
+     * thread safe if games are generated concurrently.
+     *
+     * @param randomSource
+     *            The {@link RandomSource} to use by default.
+     */
+    public void setRandomSource(final RandomSource randomSource) {
+        GameGenerator.randomSource = randomSource;
     }
 
     /**
@@ -0,0 +1,140 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Converts game IDs from and into their external form: An unsigned base62
+ * token of at most {@link #MAX_TOKEN_LENGTH} characters (e.g.
+ * <code>3yQ5kVbCdZ1</code>).
+ *
+ */
+@UtilityClass
+public class GameIds {
+    /**
+     * The maximum length of a token.
+     *
+     */
+    public static final int MAX_TOKEN_LENGTH = 11;
+
+    /**
+     * The digits of the tokens.
+     *
+     */
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    /**
+     * The base of the tokens.
+     *
+     */
+    private static final int BASE = GameIds.DIGITS.length;
+
+    /**
+     * Encodes the given ID into a token.
+     *
+     * @param id
+     *            The ID to encode.
+     * @return The token.
+     */
+    public String encode(final long id) {
+        final char[] token = new char[GameIds.MAX_TOKEN_LENGTH];
+        int position = token.length;
+        long remainder = id;
+        do {
+            token[--position] = GameIds.DIGITS[(int) Long.remainderUnsigned(remainder, GameIds.BASE)];
+            remainder = Long.divideUnsigned(remainder, GameIds.BASE);
+        } while (remainder != 0);
+        return new String(token, position, token.length - position);
+    }
+
+    /**
+     * Decodes the given token into an ID.
+     *
+     * @param token
+     *            The token to decode.
+     * @return The ID.
+     * @throws IllegalArgumentException
+     *             If the token is not valid.
+     */
+    public long decode(final String token) {
+        if (token.isEmpty() || token.length() > GameIds.MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Invalid game ID " + token + "!");
+        }
+
+        long id = 0;
+        for (int i = 0; i < token.length(); i++) {
+            final int digit = GameIds.digit(token.charAt(i));
+            if (digit < 0 || Long.compareUnsigned(id, Long.divideUnsigned(-1L - digit, GameIds.BASE)) > 0) {
+                throw new IllegalArgumentException("Invalid game ID " + token + "!");
+            }
+            id = id * GameIds.BASE + digit;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the value of the given digit.
+     *
+     * @param character
+     *            The digit.
+     * @return The value, or <code>-1</code> if the character is not a digit.
+     */
+    private int digit(final char character) {
+        if (character >= '0' && character <= '9') {
+            return character - '0';
+        } else if (character >= 'A' && character <= 'Z') {
+            return character - 'A' + 10;
+        } else if (character >= 'a' && character <= 'z') {
+            return character - 'a' + 36;
+        }
+        return -1;
+    }
+
+    /**
+     * Serializes game IDs as tokens.
+     *
+     */
+    public static class Serializer extends JsonSerializer<Long> {
+        /**
+         * {@inheritDoc}
+         *
+         * @see com.fasterxml.jackson.databind.JsonSerializer#serialize(java.lang.Object,
+         *      com.fasterxml.jackson.core.JsonGenerator,
+         *      com.fasterxml.jackson.databind.SerializerProvider)
+         */
+        @Override
+        public void serialize(final Long value, final JsonGenerator generator, final SerializerProvider serializers)
+                throws IOException {
+            generator.writeString(GameIds.encode(value));
+        }
+    }
+}
@@ -0,0 +1,709 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An append-only journal that makes the running games survive restarts.
+ *
+ * <p>
+ * Every creation of a game and every guess is appended to the journal file.
+ * The records are queued and written by a single background thread that
+ * writes all queued records at once (and forces them to disk, if enabled). So
+ * a guess never waits for the disk and many guesses share one write (group
+ * commit). Periodically the journal is compacted: The state of all running
+ * games is written into a snapshot and the journal is truncated afterwards.
+ * </p>
+ *
+ * <p>
+ * The records are queued while the game is locked, so queuing never blocks.
+ * If the queue is full (e.g. because the disk is slow), the record is dropped
+ * and counted and the journal is compacted as soon as possible, as the
+ * snapshot contains the current state of all games including the dropped
+ * changes.
+ * </p>
+ *
+ * <p>
+ * On startup, the snapshot and the journal are replayed into the
+ * {@link GameRepository}. Every guess record carries the version of the game
+ * after the guess, so records that are already contained in the snapshot are
+ * skipped. A torn record at the end of the journal (e.g. after a crash) is
+ * discarded.
+ * </p>
+ *
+ * <p>
+ * The records have the form <code>[int length][byte type][long id]</code>
+ * followed by the payload of the type, where the length does not include the
+ * length field itself. The payload of the records that describe a game starts
+ * with <code>[byte language][int wordIndex]</code>, where the language is the
+ * ordinal of the {@link Language} (or <code>-1</code>) and the word index is
+ * the index of the word in the dictionary of the language (or
+ * <code>-1</code>).
+ * </p>
+ *
+ */
+@Slf4j
+public class GameJournal implements GameListener, AutoCloseable {
+    /**
+     * The name of the journal file.
+     *
+     */
+    public static final String JOURNAL_FILE = "games.journal";
+    /**
+     * The name of the snapshot file.
+     *
+     */
+    public static final String SNAPSHOT_FILE = "games.snapshot";
+
+    /**
+     * The record type of a created game. The payload is
+     * <code>[byte language][int wordIndex][int maxMistakes][short length][word]</code>.
+     *
+     */
+    private static final byte TYPE_CREATE = 1;
+    /**
+     * The record type of a guess. The payload is
+     * <code>[long version][char character]</code>.
+     *
+     */
+    private static final byte TYPE_GUESS = 2;
+    /**
+     * The record type of the state of a game (only used in snapshots). The
+     * payload is <code>[byte language][int wordIndex][int maxMistakes]</code>
+     * followed by
+     * <code>[int guessedMask][int wrongMask][int mistakeCount][long version][short length][word]</code>.
+     *
+     */
+    private static final byte TYPE_STATE = 3;
+    /**
+     * The size of the header of a record (without the length field).
+     *
+     */
+    private static final int HEADER_SIZE = 1 + Long.BYTES;
+    /**
+     * The size of the description of a game at the start of the payload of
+     * {@link #TYPE_CREATE} and {@link #TYPE_STATE} (language, word index and
+     * max mistakes).
+     *
+     */
+    private static final int GAME_SIZE = 1 + 2 * Integer.BYTES;
+    /**
+     * The maximum number of records that are queued. Further records are
+     * dropped.
+     *
+     */
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    /**
+     * The size of the write buffer.
+     *
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * The record that stops the writer.
+     *
+     */
+    private static final byte[] STOP = new byte[0];
+
+    /**
+     * The repository that contains the games.
+     *
+     */
+    private final GameRepository repository;
+    /**
+     * The journal file.
+     *
+     */
+    private final Path journalFile;
+    /**
+     * The snapshot file.
+     *
+     */
+    private final Path snapshotFile;
+    /**
+     * Whether the written records are forced to disk.
+     *
+     */
+    private final boolean fsync;
+    /**
+     * The interval between two compactions (in milliseconds).
+     *
+     */
+    private final long compactionInterval;
+    /**
+     * The records that were not written yet.
+     *
+     */
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(GameJournal.QUEUE_CAPACITY);
+    /**
+     * The buffer that is used for writing the records.
+     *
+     */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(GameJournal.BUFFER_SIZE);
+    /**
+     * The channel of the journal file.
+     *
+     */
+    private final FileChannel channel;
+    /**
+     * The thread that writes the records.
+     *
+     */
+    private final Thread writer = new Thread(this::write, "game-journal-writer");
+    /**
+     * The number of records that were dropped because the queue was full.
+     *
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /**
+     * Whether records were dropped since the last compaction, so the journal
+     * has to be compacted as soon as possible.
+     *
+     */
+    private volatile boolean dropped;
+
+    /**
+     * Constructor of GameJournal. This does neither replay the journal nor
+     * start journaling (see {@link #replay()} and {@link #start()}).
+     *
+     * @param directory
+     *            The directory that contains the journal and the snapshot. It
+     *            is created if it does not exist.
+     * @param repository
+     *            The {@link GameRepository} that contains the games.
+     * @param fsync
+     *            Whether the written records are forced to disk.
+     * @param compactionInterval
+     *            The interval between two compactions (in milliseconds).
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public GameJournal(final Path directory, final GameRepository repository, final boolean fsync,
+            final long compactionInterval) throws IOException {
+        if (compactionInterval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive!");
+        }
+
+        Files.createDirectories(directory);
+        this.repository = repository;
+        this.journalFile = directory.resolve(GameJournal.JOURNAL_FILE);
+        this.snapshotFile = directory.resolve(GameJournal.SNAPSHOT_FILE);
+        this.fsync = fsync;
+        this.compactionInterval = compactionInterval;
+        this.channel = FileChannel.open(this.journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Replays the snapshot and the journal into the repository. Only games that
+     * are neither solved nor lost are restored. A torn record at the end of the
+     * journal is cut off.
+     *
+     * @return The number of restored games.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public int replay() throws IOException {
+        final Map<Long, Game> games = new LinkedHashMap<>();
+        if (Files.exists(this.snapshotFile)) {
+            final ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(this.snapshotFile));
+            if (GameJournal.replay(snapshot, games) != snapshot.limit()) {
+                GameJournal.log.warn("Snapshot {} is damaged, ignoring the remainder.", this.snapshotFile);
+            }
+        }
+
+        final ByteBuffer journal = ByteBuffer.allocate((int) this.channel.size());
+        while (journal.hasRemaining() && this.channel.read(journal, journal.position()) >= 0) {
+            // Read the whole journal.
+        }
+        journal.flip();
+        final int end = GameJournal.replay(journal, games);
+        if (end != journal.limit()) {
+            GameJournal.log.warn("Discarding {} bytes of a torn record at the end of the journal {}.",
+                    journal.limit() - end, this.journalFile);
+            this.channel.truncate(end);
+        }
+        this.channel.position(end);
+
+        int count = 0;
+        for (final Game game : games.values()) {
+            if (!game.isSolved() && !game.isLost()) {
+                this.repository.save(game);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Registers this journal as a {@link GameListener} and starts writing the
+     * records in the background.
+     *
+     */
+    public void start() {
+        this.writer.start();
+        Game.addListener(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#gameCreated(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void gameCreated(final Game game) {
+        final byte[] word = game.getWord().getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer record = GameJournal.record(GameJournal.TYPE_CREATE, game,
+                GameJournal.GAME_SIZE + Short.BYTES + word.length);
+        record.putShort((short) word.length);
+        record.put(word);
+        this.enqueue(record.array());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#guessed(de.fdamken.study.hangman.game.Game,
+     *      char, boolean)
+     */
+    @Override
+    public void guessed(final Game game, final char character, final boolean correct) {
+        final ByteBuffer record = GameJournal.record(GameJournal.TYPE_GUESS, game.getId(),
+                Long.BYTES + Character.BYTES);
+        record.putLong(game.getVersion());
+        record.putChar(character);
+        this.enqueue(record.array());
+    }
+
+    /**
+     * Unregisters this journal, writes all queued records, stops the writer
+     * and closes the journal.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        Game.removeListener(this);
+        if (this.writer.isAlive()) {
+            try {
+                this.queue.put(GameJournal.STOP);
+                this.writer.join();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.channel.close();
+    }
+
+    /**
+     *
+     * @return The number of records that were dropped because the queue was
+     *         full.
+     */
+    public long getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    /**
+     * Writes all records that were queued before and compacts the journal
+     * afterwards (see {@link GameJournal}). This is invoked periodically by the
+     * writer.
+     *
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    void compact() throws IOException {
+        this.dropped = false;
+        final List<byte[]> batch = new ArrayList<>();
+        this.queue.drainTo(batch);
+        this.write(batch);
+
+        // Records that are queued from now on may or may not be contained in
+        // the snapshot. They are written to the truncated journal and the
+        // duplicates are skipped on replay.
+        final Path temporaryFile = this.snapshotFile.resolveSibling(GameJournal.SNAPSHOT_FILE + ".tmp");
+        int count = 0;
+        try (final FileChannel snapshot = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            this.buffer.clear();
+            for (final Game game : this.repository.findAll()) {
+                final ByteBuffer record;
+                synchronized (game) {
+                    final byte[] word = game.getWord().getBytes(StandardCharsets.US_ASCII);
+                    record = GameJournal.record(GameJournal.TYPE_STATE, game,
+                            GameJournal.GAME_SIZE + 3 * Integer.BYTES + Long.BYTES + Short.BYTES + word.length);
+                    record.putInt(game.getGuessedMask());
+                    record.putInt(game.getWrongMask());
+                    record.putInt(game.getMistakeCount());
+                    record.putLong(game.getVersion());
+                    record.putShort((short) word.length);
+                    record.put(word);
+                }
+                this.append(snapshot, record.array());
+                count++;
+            }
+            this.flush(snapshot);
+            snapshot.force(true);
+        }
+        Files.move(temporaryFile, this.snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.channel.truncate(0);
+        if (this.fsync) {
+            this.channel.force(true);
+        }
+
+        GameJournal.log.debug("Compacted the journal into a snapshot of {} games.", count);
+    }
+
+    /**
+     * Writes the queued records until the writer is stopped. This is the
+     * body of the writer thread.
+     *
+     */
+    private void write() {
+        final List<byte[]> batch = new ArrayList<>();
+        long nextCompaction = System.currentTimeMillis() + this.compactionInterval;
+        boolean running = true;
+        while (running) {
+            try {
+                final byte[] record = this.queue.poll(Math.max(nextCompaction - System.currentTimeMillis(), 0),
+                        TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    batch.add(record);
+                    this.queue.drainTo(batch);
+                    running = !batch.contains(GameJournal.STOP);
+                    this.write(batch);
+                    batch.clear();
+                }
+                if (running && this.dropped) {
+                    GameJournal.log.warn("Dropped {} records in total as the queue was full, compacting the journal.",
+                            this.droppedCount.get());
+                    nextCompaction = System.currentTimeMillis();
+                }
+                if (running && System.currentTimeMillis() >= nextCompaction) {
+                    this.compact();
+                    nextCompaction = System.currentTimeMillis() + this.compactionInterval;
+                }
+            } catch (final InterruptedException ex) {
+                running = false;
+            } catch (final IOException ex) {
+                GameJournal.log.error("Failed to write the journal!", ex);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the given records into the journal at once and forces them to
+     * disk, if enabled.
+     *
+     * @param batch
+     *            The records to write.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private void write(final List<byte[]> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        this.buffer.clear();
+        for (final byte[] record : batch) {
+            this.append(this.channel, record);
+        }
+        this.flush(this.channel);
+        if (this.fsync) {
+            this.channel.force(false);
+        }
+    }
+
+    /**
+     * Appends the given record to the write buffer. If the buffer is full, it
+     * is written to the given channel first.
+     *
+     * @param target
+     *            The channel to write to.
+     * @param record
+     *            The record to append.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private void append(final FileChannel target, final byte[] record) throws IOException {
+        if (record.length > this.buffer.remaining()) {
+            this.flush(target);
+            if (record.length > this.buffer.capacity()) {
+                final ByteBuffer wrapped = ByteBuffer.wrap(record);
+                while (wrapped.hasRemaining()) {
+                    target.write(wrapped);
+                }
+                return;
+            }
+        }
+        this.buffer.put(record);
+    }
+
+    /**
+     * Writes the content of the write buffer to the given channel and clears
+     * the buffer.
+     *
+     * @param target
+     *            The channel to write to.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private void flush(final FileChannel target) throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            target.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Queues the given record for writing. This is invoked while the game is
+     * locked, so it never waits: If the queue is full, the record is dropped
+     * and the journal is compacted as soon as possible (see
+     * {@link GameJournal}).
+     *
+     * @param record
+     *            The record to queue.
+     */
+    private void enqueue(final byte[] record) {
+        if (!this.queue.offer(record)) {
+            this.droppedCount.incrementAndGet();
+            this.dropped = true;
+        }
+    }
+
+    /**
+     * Creates a record with the given type and ID. The returned buffer is
+     * positioned at the start of the payload.
+     *
+     * @param type
+     *            The type of the record.
+     * @param gameId
+     *            The ID of the game.
+     * @param payloadSize
+     *            The size of the payload.
+     * @return The record.
+     */
+    private static ByteBuffer record(final byte type, final long gameId, final int payloadSize) {
+        final ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + GameJournal.HEADER_SIZE + payloadSize);
+        record.putInt(GameJournal.HEADER_SIZE + payloadSize);
+        record.put(type);
+        record.putLong(gameId);
+        return record;
+    }
+
+    /**
+     * Creates a record with the given type for the given game. The returned
+     * buffer is positioned after the description of the game (see
+     * {@link #GAME_SIZE}).
+     *
+     * @param type
+     *            The type of the record.
+     * @param game
+     *            The game.
+     * @param payloadSize
+     *            The size of the payload including the description of the
+     *            game.
+     * @return The record.
+     */
+    private static ByteBuffer record(final byte type, final Game game, final int payloadSize) {
+        final ByteBuffer record = GameJournal.record(type, game.getId(), payloadSize);
+        record.put((byte) (game.getLanguage() == null ? -1 : game.getLanguage().ordinal()));
+        record.putInt(game.getWordIndex());
+        record.putInt(game.getMaxMistakes());
+        return record;
+    }
+
+    /**
+     * Replays all records that are contained in the given buffer into the
+     * given games.
+     *
+     * @param source
+     *            The buffer that contains the records.
+     * @param games
+     *            The games packed by their ID.
+     * @return The position after the last complete record.
+     * @throws IOException
+     *             If a dictionary cannot be loaded.
+     */
+    private static int replay(final ByteBuffer source, final Map<Long, Game> games) throws IOException {
+        int end = source.position();
+        try {
+            while (source.remaining() >= Integer.BYTES) {
+                final int length = source.getInt();
+                if (length < GameJournal.HEADER_SIZE || length > source.remaining()) {
+                    break;
+                }
+                final ByteBuffer record = source.slice();
+                record.limit(length);
+                source.position(source.position() + length);
+
+                final byte type = record.get();
+                final long gameId = record.getLong();
+                switch (type) {
+                    case TYPE_CREATE:
+                        final Language language = GameJournal.language(record.get());
+                        final int wordIndex = record.getInt();
+                        final int maxMistakes = record.getInt();
+                        if (!games.containsKey(gameId)) {
+                            games.put(gameId, GameJournal.restore(gameId, language, wordIndex, GameJournal.word(record),
+                                    maxMistakes, 0, 0, 0, 0));
+                        }
+                        break;
+                    case TYPE_GUESS:
+                        final long version = record.getLong();
+                        final char character = record.getChar();
+                        final Game game = games.get(gameId);
+                        if (game != null) {
+                            game.replay(character, version);
+                        }
+                        break;
+                    case TYPE_STATE:
+                        final Language stateLanguage = GameJournal.language(record.get());
+                        final int stateWordIndex = record.getInt();
+                        final int stateMaxMistakes = record.getInt();
+                        final int guessedMask = record.getInt();
+                        final int wrongMask = record.getInt();
+                        final int mistakeCount = record.getInt();
+                        final long stateVersion = record.getLong();
+                        games.put(gameId, GameJournal.restore(gameId, stateLanguage, stateWordIndex,
+                                GameJournal.word(record), stateMaxMistakes, guessedMask, wrongMask, mistakeCount,
+                                stateVersion));
+                        break;
+                    default:
+                        return end;
+                }
+                end = source.position();
+            }
+        } catch (final BufferUnderflowException | IllegalArgumentException ex) {
+            // Torn or damaged record, everything from here on is discarded.
+        }
+        return end;
+    }
+
+    /**
+     * Restores a game from its state (see
+     * {@link Game#restore(long, Language, Dictionary, int, String, int, int, int, int, long)}).
+     * The word index is only kept if the dictionary of the language still
+     * contains the word at that index.
+     *
+     * @param gameId
+     *            The ID of the game.
+     * @param language
+     *            The {@link Language} of the game, if any.
+     * @param wordIndex
+     *            The index of the word in the dictionary of the language, or
+     *            <code>-1</code>.
+     * @param word
+     *            The word of the game.
+     * @param maxMistakes
+     *            The number of mistakes one must make in order to loose.
+     * @param guessedMask
+     *            The letters that were guessed correctly as a bit mask.
+     * @param wrongMask
+     *            The letters that were guessed wrong as a bit mask.
+     * @param mistakeCount
+     *            The number of mistakes.
+     * @param version
+     *            The version of the state.
+     * @return The restored game.
+     * @throws IOException
+     *             If the dictionary cannot be loaded.
+     */
+    private static Game restore(final long gameId, final Language language, final int wordIndex, final String word,
+            final int maxMistakes, final int guessedMask, final int wrongMask, final int mistakeCount,
+            final long version) throws IOException {
+        Dictionary dictionary = null;
+        int index = -1;
+        if (language != null && wordIndex >= 0) {
+            final Dictionary candidate = Dictionaries.get(language);
+            if (wordIndex < candidate.size() && candidate.getWord(wordIndex).equalsIgnoreCase(word)) {
+                dictionary = candidate;
+                index = wordIndex;
+            }
+        }
+        return Game.restore(gameId, language, dictionary, index, word, maxMistakes, guessedMask, wrongMask,
+                mistakeCount, version);
+    }
+
+    /**
+     * Converts the given ordinal to a {@link Language}.
+     *
+     * @param ordinal
+     *            The ordinal of the language, or <code>-1</code>.
+     * @return The {@link Language}, or <code>null</code> if the ordinal is
+     *         <code>-1</code>.
+     * @throws IllegalArgumentException
+     *             If the ordinal is not valid.
+     */
+    private static Language language(final byte ordinal) {
+        if (ordinal == -1) {
+            return null;
+        }
+        final Language[] languages = Language.values();
+        if (ordinal < 0 || ordinal >= languages.length) {
+            throw new IllegalArgumentException("Unknown language " + ordinal + "!");
+        }
+        return languages[ordinal];
+    }
+
+    /**
+     * Reads a word (<code>[short length][word]</code>) from the given record.
+     *
+     * @param record
+     *            The record to read from.
+     * @return The word.
+     */
+    private static String word(final ByteBuffer record) {
+        final byte[] word = new byte[record.getShort() & 0xFFFF];
+        record.get(word);
+        return new String(word, StandardCharsets.US_ASCII);
+    }
+}
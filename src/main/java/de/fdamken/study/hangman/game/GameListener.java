@@ -0,0 +1,80 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+/**
+ * A listener that is notified about the creation of and the guesses on all
+ * {@link Game games}. Listeners are called synchronously, so they must be
+ * fast and must not throw exceptions.
+ *
+ * <p>
+ * Guesses are reported within the change of the game (see
+ * {@link GameRepository#modify(Game, java.util.function.Supplier)}), so
+ * listeners see the guesses of a game in the order of their versions. Hence
+ * {@link #guessed(Game, char, boolean)} and {@link #gameFinished(Game)} must
+ * neither block nor access the {@link GameRepository}.
+ * </p>
+ *
+ * @see Game#addListener(GameListener)
+ */
+public interface GameListener {
+    /**
+     * Invoked after a game was created.
+     *
+     * @param game
+     *            The created {@link Game}.
+     */
+    default void gameCreated(final Game game) {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Invoked after a guess was executed on a game. This is called while
+     * holding the lock of the game.
+     *
+     * @param game
+     *            The {@link Game}.
+     * @param character
+     *            The guessed character (upper case).
+     * @param correct
+     *            Whether the guess was correct (see {@link Game#guess(char)}).
+     */
+    default void guessed(final Game game, final char character, final boolean correct) {
+        // Nothing to do by default.
+    }
+
+    /**
+     * Invoked after a guess solved or lost a game (after
+     * {@link #guessed(Game, char, boolean)}). This is called while holding the
+     * lock of the game.
+     *
+     * @param game
+     *            The finished {@link Game}.
+     */
+    default void gameFinished(final Game game) {
+        // Nothing to do by default.
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A repository holds all running {@link Game games} and makes them findable by
+ * their ID.
+ *
+ * <p>
+ * Implementations have to be thread safe.
+ * </p>
+ *
+ */
+public interface GameRepository {
+    /**
+     * Saves the given game.
+     *
+     * @param game
+     *            The {@link Game} to save.
+     */
+    void save(Game game);
+
+    /**
+     * Executes the given change of the given game atomically, i.e. no other
+     * change of the same game interleaves with it. By default, this
+     * synchronizes on the game, which is sufficient for repositories that keep
+     * the games themselves. Repositories that hand out copies of the stored
+     * state have to load the latest state into the copy before and write it
+     * back afterwards, so concurrent changes through different copies are not
+     * lost. The change must not access the repository, as it may hold locks of
+     * the repository.
+     *
+     * @param <T>
+     *            The type of the result of the change.
+     * @param game
+     *            The {@link Game} to change.
+     * @param change
+     *            The change.
+     * @return The result of the change.
+     */
+    default <T> T modify(final Game game, final Supplier<T> change) {
+        synchronized (game) {
+            return change.get();
+        }
+    }
+
+    /**
+     * Finds a game with the given ID and returns it. This marks the game as
+     * used.
+     *
+     * @param gameId
+     *            The ID of the game to find.
+     * @return The game, if any. Otherwise <code>null</code>.
+     */
+    Game find(long gameId);
+
+    /**
+     * Returns all games that are stored at the moment. This does not mark them
+     * as used.
+     *
+     * @return A snapshot of all {@link Game games}.
+     */
+    List<Game> findAll();
+
+    /**
+     * Removes the game with the given ID, if any.
+     *
+     * @param gameId
+     *            The ID of the game to remove.
+     */
+    void remove(long gameId);
+
+    /**
+     *
+     * @return The number of games that are stored at the moment.
+     */
+    int size();
+
+    /**
+     *
+     * @return The total number of games that were evicted (i.e. removed
+     *         without being finished).
+     */
+    long getEvictionCount();
+}
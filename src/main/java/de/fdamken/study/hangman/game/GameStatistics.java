@@ -0,0 +1,172 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+
+/**
+ * A {@link GameListener} that counts the created games and the guesses. The
+ * counters are {@link LongAdder LongAdders}, so concurrent games never
+ * contend on them.
+ *
+ */
+public class GameStatistics implements GameListener {
+    /**
+     * The number of created games packed by the language of their word.
+     *
+     */
+    private final Map<Language, LongAdder> createdCounts = new EnumMap<>(Language.class);
+    /**
+     * The number of created games with a custom word (or an unknown
+     * language).
+     *
+     */
+    private final LongAdder customCreatedCount = new LongAdder();
+    /**
+     * The number of correct guesses.
+     *
+     */
+    private final LongAdder correctGuessCount = new LongAdder();
+    /**
+     * The number of wrong guesses.
+     *
+     */
+    private final LongAdder wrongGuessCount = new LongAdder();
+    /**
+     * The number of solved games.
+     *
+     */
+    private final LongAdder solvedCount = new LongAdder();
+    /**
+     * The number of lost games.
+     *
+     */
+    private final LongAdder lostCount = new LongAdder();
+
+    /**
+     * Constructor of GameStatistics.
+     *
+     */
+    public GameStatistics() {
+        for (final Language language : Language.values()) {
+            this.createdCounts.put(language, new LongAdder());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#gameCreated(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void gameCreated(final Game game) {
+        final Language language = game.getLanguage();
+        (language == null ? this.customCreatedCount : this.createdCounts.get(language)).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#guessed(de.fdamken.study.hangman.game.Game,
+     *      char, boolean)
+     */
+    @Override
+    public void guessed(final Game game, final char character, final boolean correct) {
+        (correct ? this.correctGuessCount : this.wrongGuessCount).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#gameFinished(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void gameFinished(final Game game) {
+        (game.isSolved() ? this.solvedCount : this.lostCount).increment();
+    }
+
+    /**
+     *
+     * @param language
+     *            The {@link Language}.
+     * @return The number of created games with a word of the given language.
+     */
+    public long getCreatedCount(final Language language) {
+        return this.createdCounts.get(language).sum();
+    }
+
+    /**
+     *
+     * @return The number of created games with a custom word.
+     */
+    public long getCustomCreatedCount() {
+        return this.customCreatedCount.sum();
+    }
+
+    /**
+     *
+     * @return The number of guesses.
+     */
+    public long getGuessCount() {
+        return this.correctGuessCount.sum() + this.wrongGuessCount.sum();
+    }
+
+    /**
+     *
+     * @return The number of correct guesses.
+     */
+    public long getCorrectGuessCount() {
+        return this.correctGuessCount.sum();
+    }
+
+    /**
+     *
+     * @return The number of wrong guesses.
+     */
+    public long getWrongGuessCount() {
+        return this.wrongGuessCount.sum();
+    }
+
+    /**
+     *
+     * @return The number of solved games.
+     */
+    public long getSolvedCount() {
+        return this.solvedCount.sum();
+    }
+
+    /**
+     *
+     * @return The number of lost games.
+     */
+    public long getLostCount() {
+        return this.lostCount.sum();
+    }
+}
@@ -0,0 +1,312 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+
+/**
+ * A {@link GameRepository} that keeps all games in a {@link ConcurrentHashMap}.
+ *
+ * <p>
+ * The number of games is capped: A background sweeper periodically evicts all
+ * games that were not used for longer than the idle timeout and, if there are
+ * still more games than allowed, the least recently used ones. If the cap is
+ * exceeded by a new game, a sweep is triggered immediately.
+ * </p>
+ *
+ */
+public class InMemoryGameRepository implements GameRepository, AutoCloseable {
+    /**
+     * The default maximum number of games.
+     *
+     */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+    /**
+     * The default idle timeout (in milliseconds).
+     *
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
+    /**
+     * The default interval between two sweeps (in milliseconds).
+     *
+     */
+    public static final long DEFAULT_SWEEP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The executor that runs the sweeps of all repositories.
+     *
+     */
+    private static final ScheduledExecutorService SWEEPER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "game-repository-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Contains all games packed by their ID.
+     *
+     */
+    private final Map<Long, Entry> games = new ConcurrentHashMap<>();
+    /**
+     * Whether an immediate sweep is pending.
+     *
+     */
+    private final AtomicBoolean sweepPending = new AtomicBoolean();
+    /**
+     * The number of games that were evicted because they were idle.
+     *
+     */
+    private final AtomicLong idleEvictionCount = new AtomicLong();
+    /**
+     * The number of games that were evicted because the cap was exceeded.
+     *
+     */
+    private final AtomicLong capacityEvictionCount = new AtomicLong();
+
+    /**
+     * The maximum number of games.
+     *
+     */
+    @Getter
+    private final int maxSize;
+    /**
+     * The time after which an unused game is evicted (in milliseconds).
+     *
+     */
+    @Getter
+    private final long idleTimeout;
+    /**
+     * The periodic sweep.
+     *
+     */
+    private final ScheduledFuture<?> sweep;
+
+    /**
+     * Constructor of InMemoryGameRepository. Uses the default settings.
+     *
+     */
+    public InMemoryGameRepository() {
+        this(InMemoryGameRepository.DEFAULT_MAX_SIZE, InMemoryGameRepository.DEFAULT_IDLE_TIMEOUT,
+                InMemoryGameRepository.DEFAULT_SWEEP_INTERVAL);
+    }
+
+    /**
+     * Constructor of InMemoryGameRepository.
+     *
+     * @param maxSize
+     *            The maximum number of games.
+     * @param idleTimeout
+     *            The time after which an unused game is evicted (in
+     *            milliseconds).
+     * @param sweepInterval
+     *            The interval between two sweeps (in milliseconds).
+     */
+    public InMemoryGameRepository(final int maxSize, final long idleTimeout, final long sweepInterval) {
+        if (maxSize <= 0 || idleTimeout <= 0 || sweepInterval <= 0) {
+            throw new IllegalArgumentException("Size, timeout and interval must be positive!");
+        }
+
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.sweep = InMemoryGameRepository.SWEEPER.scheduleWithFixedDelay(this::sweep, sweepInterval, sweepInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#save(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void save(final Game game) {
+        this.games.put(game.getId(), new Entry(game));
+
+        if (this.games.size() > this.maxSize && this.sweepPending.compareAndSet(false, true)) {
+            InMemoryGameRepository.SWEEPER.execute(() -> {
+                this.sweepPending.set(false);
+                this.sweep();
+            });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#find(long)
+     */
+    @Override
+    public Game find(final long gameId) {
+        final Entry entry = this.games.get(gameId);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.game;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#findAll()
+     */
+    @Override
+    public List<Game> findAll() {
+        final List<Game> result = new ArrayList<>(this.games.size());
+        for (final Entry entry : this.games.values()) {
+            result.add(entry.game);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#remove(long)
+     */
+    @Override
+    public void remove(final long gameId) {
+        this.games.remove(gameId);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#size()
+     */
+    @Override
+    public int size() {
+        return this.games.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameRepository#getEvictionCount()
+     */
+    @Override
+    public long getEvictionCount() {
+        return this.idleEvictionCount.get() + this.capacityEvictionCount.get();
+    }
+
+    /**
+     *
+     * @return The number of games that were evicted because they were idle.
+     */
+    public long getIdleEvictionCount() {
+        return this.idleEvictionCount.get();
+    }
+
+    /**
+     *
+     * @return The number of games that were evicted because the cap was
+     *         exceeded.
+     */
+    public long getCapacityEvictionCount() {
+        return this.capacityEvictionCount.get();
+    }
+
+    /**
+     * Evicts all idle games and, if there are still too many games, the least
+     * recently used ones. This is executed periodically in the background.
+     *
+     */
+    public void sweep() {
+        final long idleSince = System.currentTimeMillis() - this.idleTimeout;
+        this.games.entrySet().removeIf(mapping -> {
+            if (mapping.getValue().lastAccess < idleSince) {
+                this.idleEvictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+
+        final int excess = this.games.size() - this.maxSize;
+        if (excess > 0) {
+            // The access times are copied as they may change while sorting.
+            final List<SimpleImmutableEntry<Long, Entry>> candidates = new ArrayList<>(this.games.size());
+            for (final Entry entry : this.games.values()) {
+                candidates.add(new SimpleImmutableEntry<>(entry.lastAccess, entry));
+            }
+            candidates.sort(Map.Entry.comparingByKey());
+            for (final SimpleImmutableEntry<Long, Entry> candidate : candidates.subList(0, Math.min(excess, candidates.size()))) {
+                final Entry entry = candidate.getValue();
+                if (this.games.remove(entry.game.getId(), entry)) {
+                    this.capacityEvictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic sweep. The games are kept.
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        this.sweep.cancel(false);
+    }
+
+    /**
+     * A stored game with the time it was used last.
+     *
+     */
+    private static class Entry {
+        /**
+         * The game.
+         *
+         */
+        private final Game game;
+
+        /**
+         * The time the game was used last.
+         *
+         */
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        /**
+         * Constructor of Entry.
+         *
+         * @param game
+         *            The game.
+         */
+        private Entry(final Game game) {
+            this.game = game;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+/**
+ * A {@link GameIdGenerator} that permutes the IDs of another generator using a
+ * secret key, so the IDs cannot be guessed from other IDs.
+ *
+ * <p>
+ * The permutation is a Feistel network on the two 32-bit halves of the ID with
+ * a keyed hash as the round function. As every Feistel network is a bijection,
+ * the permuted IDs are unique as long as the original IDs are. The permutation
+ * is not a cryptographic cipher, but it is far too expensive to be inverted by
+ * probing the API.
+ * </p>
+ *
+ */
+public class KeyedGameIdGenerator implements GameIdGenerator {
+    /**
+     * The number of rounds of the Feistel network.
+     *
+     */
+    private static final int ROUNDS = 8;
+
+    /**
+     * The generator of the original IDs.
+     *
+     */
+    private final GameIdGenerator delegate;
+    /**
+     * The keys of the rounds (derived from the secret key).
+     *
+     */
+    private final long[] roundKeys = new long[KeyedGameIdGenerator.ROUNDS];
+
+    /**
+     * Constructor of KeyedGameIdGenerator.
+     *
+     * @param delegate
+     *            The {@link GameIdGenerator} that generates the original IDs.
+     * @param key
+     *            The secret key. All nodes that share games must use the same
+     *            key.
+     */
+    public KeyedGameIdGenerator(final GameIdGenerator delegate, final long key) {
+        this.delegate = delegate;
+        long state = key;
+        for (int i = 0; i < KeyedGameIdGenerator.ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            this.roundKeys[i] = KeyedGameIdGenerator.mix(state);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameIdGenerator#nextId()
+     */
+    @Override
+    public long nextId() {
+        return this.permute(this.delegate.nextId());
+    }
+
+    /**
+     * Permutes the given ID.
+     *
+     * @param id
+     *            The ID to permute.
+     * @return The permuted ID.
+     */
+    long permute(final long id) {
+        int left = (int) (id >>> 32);
+        int right = (int) id;
+        for (final long roundKey : this.roundKeys) {
+            final int next = left ^ (int) KeyedGameIdGenerator.mix((right & 0xFFFFFFFFL) ^ roundKey);
+            left = right;
+            right = next;
+        }
+        return (long) left << 32 | right & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Mixes the bits of the given value (the finalizer of SplitMix64).
+     *
+     * @param value
+     *            The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(final long value) {
+        long result = value;
+        result = (result ^ result >>> 30) * 0xBF58476D1CE4E5B9L;
+        result = (result ^ result >>> 27) * 0x94D049BB133111EBL;
+        return result ^ result >>> 31;
+    }
+}
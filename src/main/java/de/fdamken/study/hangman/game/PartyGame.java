@@ -0,0 +1,579 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A game that is played by multiple players at the same time ("party").
+ *
+ * <p>
+ * The whole state of a party lives in a single <code>long</code> that is
+ * updated by compare-and-swap, so guesses never block each other and are never
+ * lost:
+ * </p>
+ *
+ * <pre>
+ * bit  0 - 25: the letters that were guessed correctly
+ * bit 26 - 51: the letters that were guessed wrong
+ * bit 62:      solved
+ * bit 63:      lost
+ * </pre>
+ *
+ * <p>
+ * Contrary to a {@link Game}, every letter can be guessed only once, so many
+ * players guessing the same wrong letter at the same time cost a single
+ * mistake. The number of mistakes and the version are derived from the
+ * letters. As the state only ever grows, the events of the applied guesses
+ * can be merged by participants in any order.
+ * </p>
+ *
+ * <p>
+ * Every applied guess is attributed to the player that made it and is fanned
+ * out to all {@link Participant participants}. A player claims the letter
+ * before it is applied, so every letter of a state is attributed already and
+ * the scores can be derived from any state (see
+ * {@link Guess#getCorrectCount(Player)}). In particular, the scores of the
+ * state that finished the party contain all applied guesses.
+ * </p>
+ *
+ */
+@Getter
+public class PartyGame {
+    /**
+     * The maximum number of running parties.
+     *
+     */
+    public static final int MAX_PARTIES = 10_000;
+    /**
+     * The maximum number of players of a single party.
+     *
+     */
+    public static final int MAX_PLAYERS = 256;
+
+    /**
+     * The number of letters in the alphabet.
+     *
+     */
+    private static final int LETTERS = 26;
+    /**
+     * The mask of all letters.
+     *
+     */
+    private static final long LETTER_MASK = (1L << PartyGame.LETTERS) - 1;
+    /**
+     * The flag of a solved party.
+     *
+     */
+    private static final long SOLVED = 1L << 62;
+    /**
+     * The flag of a lost party.
+     *
+     */
+    private static final long LOST = 1L << 63;
+
+    /**
+     * Contains all running parties packed by their ID.
+     *
+     */
+    private static final Map<Long, PartyGame> PARTIES = new ConcurrentHashMap<>();
+
+    /**
+     * The ID of this party.
+     *
+     */
+    private final long id;
+    /**
+     * The word to guess (upper case).
+     *
+     */
+    private final String word;
+    /**
+     * The letters of {@link #word} as a mask.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final int letterMask;
+    /**
+     * The number of mistakes the players may make together.
+     *
+     */
+    private final int maxMistakes;
+    /**
+     * The state (see above).
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong state = new AtomicLong();
+    /**
+     * The players that claimed the letters, indexed by the bit of the letter
+     * in the {@link #state}.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReferenceArray<Player> guessers = new AtomicReferenceArray<>(2 * PartyGame.LETTERS);
+    /**
+     * Contains the players packed by their name.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    /**
+     * The participants that receive the applied guesses.
+     *
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<Participant> participants = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor of PartyGame.
+     *
+     * @param id
+     *            The ID of the party.
+     * @param word
+     *            The word to guess. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes the players may make together. This
+     *            must be between <code>1</code> and <code>26</code>.
+     */
+    PartyGame(final long id, final String word, final int maxMistakes) {
+        if (!word.matches("^[a-zA-Z]+$")) {
+            throw new IllegalArgumentException("Word must only contain letters!");
+        }
+        if (maxMistakes <= 0 || maxMistakes > PartyGame.LETTERS) {
+            throw new IllegalArgumentException("Max mistakes must be between 1 and " + PartyGame.LETTERS + "!");
+        }
+
+        this.id = id;
+        this.word = word.toUpperCase(Locale.ROOT);
+        int letterMask = 0;
+        for (int i = 0; i < this.word.length(); i++) {
+            letterMask |= 1 << this.word.charAt(i) - 'A';
+        }
+        this.letterMask = letterMask;
+        this.maxMistakes = maxMistakes;
+    }
+
+    /**
+     * Creates a party with the given word and registers it.
+     *
+     * @param word
+     *            The word to guess. This must only contain letters.
+     * @param maxMistakes
+     *            The number of mistakes the players may make together.
+     * @return The created party.
+     * @throws IllegalStateException
+     *             If there are too many running parties.
+     */
+    public static PartyGame create(final String word, final int maxMistakes) {
+        if (PartyGame.PARTIES.size() >= PartyGame.MAX_PARTIES) {
+            throw new IllegalStateException("Too many parties!");
+        }
+
+        final PartyGame party = new PartyGame(Game.getIdGenerator().nextId(), word, maxMistakes);
+        PartyGame.PARTIES.put(party.id, party);
+        return party;
+    }
+
+    /**
+     * Creates a party with a random word of the given language and registers
+     * it.
+     *
+     * @param language
+     *            The language to choose the word from.
+     * @return The created party.
+     * @throws IOException
+     *             If the dictionary cannot be loaded.
+     * @throws IllegalStateException
+     *             If there are too many running parties.
+     */
+    public static PartyGame create(final Language language) throws IOException {
+        final Dictionary dictionary = Dictionaries.get(language);
+        final int index = dictionary.getIndex().choose(new WordConstraints(), GameGenerator.getRandomSource());
+        return PartyGame.create(dictionary.getWord(index), Game.DEFAULT_MAX_MISTAKES);
+    }
+
+    /**
+     * Retrieves the running party with the given ID.
+     *
+     * @param partyId
+     *            The ID of the party.
+     * @return The party, if any. Otherwise <code>null</code>.
+     */
+    public static PartyGame getParty(final long partyId) {
+        return PartyGame.PARTIES.get(partyId);
+    }
+
+    /**
+     * Lets the player with the given name join this party. The player is bound
+     * to the given owner: If the owner has joined as the player already, the
+     * existing player is returned. Other owners cannot join with the same name.
+     *
+     * @param name
+     *            The name of the player.
+     * @param owner
+     *            The owner of the player (e.g. the ID of the session of the
+     *            client that plays as the player).
+     * @return The player.
+     * @throws IllegalStateException
+     *             If the party has too many players or if the name is taken by
+     *             another owner.
+     */
+    public Player join(final String name, final Object owner) {
+        Player player = this.players.get(name);
+        if (player == null) {
+            if (this.players.size() >= PartyGame.MAX_PLAYERS) {
+                throw new IllegalStateException("Too many players!");
+            }
+            player = this.players.computeIfAbsent(name, key -> new Player(this, key, owner));
+        }
+        if (!player.owner.equals(owner)) {
+            throw new IllegalStateException("Player name " + name + " is taken!");
+        }
+        return player;
+    }
+
+    /**
+     * Adds the given participant that receives all applied guesses of this
+     * party.
+     *
+     * @param participant
+     *            The participant to add.
+     */
+    public void addParticipant(final Participant participant) {
+        this.participants.add(participant);
+    }
+
+    /**
+     * Removes the given participant from this party. If it was the last one,
+     * the party is removed.
+     *
+     * @param participant
+     *            The participant to remove.
+     */
+    public void removeParticipant(final Participant participant) {
+        this.participants.remove(participant);
+        if (this.participants.isEmpty()) {
+            PartyGame.PARTIES.remove(this.id, this);
+        }
+    }
+
+    /**
+     * Executes a guess of the given player (case insensitive). The guess is
+     * only applied if the party is not finished and if the letter was not
+     * guessed yet. If it is applied, it is attributed to the player and sent
+     * to all participants. If it finished the party, the party is removed.
+     *
+     * @param player
+     *            The player that guesses (see {@link #join(String, Object)}).
+     * @param rawCharacter
+     *            The character to guess.
+     * @return The applied guess, or <code>null</code> if it was not applied.
+     */
+    public Guess guess(final Player player, final char rawCharacter) {
+        final int letter = Character.toUpperCase(rawCharacter) - 'A';
+        if (letter < 0 || letter >= PartyGame.LETTERS) {
+            return null;
+        }
+
+        final boolean correct = (this.letterMask >>> letter & 1) != 0;
+        final int index = correct ? letter : PartyGame.LETTERS + letter;
+        final long bit = 1L << index;
+        // Only one player can claim a letter, so a claimed letter is either
+        // applied by this player or not at all (if the party finished).
+        if (!this.guessers.compareAndSet(index, null, player)) {
+            return null;
+        }
+        long current;
+        long next;
+        do {
+            current = this.state.get();
+            if ((current & (PartyGame.SOLVED | PartyGame.LOST | bit)) != 0) {
+                return null;
+            }
+
+            next = current | bit;
+            if ((next & PartyGame.LETTER_MASK) == this.letterMask) {
+                next |= PartyGame.SOLVED;
+            } else if (PartyGame.mistakeCount(next) >= this.maxMistakes) {
+                next |= PartyGame.LOST;
+            }
+        } while (!this.state.compareAndSet(current, next));
+
+        final Guess guess = new Guess(this, player, (char) ('A' + letter), correct, next);
+        if (guess.isFinished()) {
+            PartyGame.PARTIES.remove(this.id, this);
+        }
+        for (final Participant participant : this.participants) {
+            participant.guessed(guess);
+        }
+        return guess;
+    }
+
+    /**
+     *
+     * @return The current state of this party (without a player).
+     */
+    public Guess getCurrentState() {
+        return new Guess(this, null, '\0', false, this.state.get());
+    }
+
+    /**
+     *
+     * @return All players of this party.
+     */
+    public Collection<Player> getPlayers() {
+        return new ArrayList<>(this.players.values());
+    }
+
+    /**
+     * Retrieves the number of mistakes of the given state.
+     *
+     * @param state
+     *            The state.
+     * @return The number of letters that were guessed wrong.
+     */
+    private static int mistakeCount(final long state) {
+        return Long.bitCount(state >>> PartyGame.LETTERS & PartyGame.LETTER_MASK);
+    }
+
+    /**
+     * A participant of a party that receives all applied guesses (e.g. to send
+     * them to the players). The guesses
+     * are delivered by the guessing threads, so the order between concurrent
+     * guesses is not defined (see {@link Guess#getVersion()}).
+     *
+     */
+    @FunctionalInterface
+    public interface Participant {
+        /**
+         * Invoked after a guess was applied.
+         *
+         * @param guess
+         *            The applied guess.
+         */
+        void guessed(Guess guess);
+    }
+
+    /**
+     * A player of a party.
+     *
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Player {
+        /**
+         * The party.
+         *
+         */
+        @Getter(AccessLevel.NONE)
+        private final PartyGame party;
+        /**
+         * The name of the player.
+         *
+         */
+        private final String name;
+        /**
+         * The owner of the player (see {@link PartyGame#join(String, Object)}).
+         *
+         */
+        @Getter(AccessLevel.NONE)
+        private final Object owner;
+
+        /**
+         *
+         * @return The number of correct guesses in the current state of the
+         *         party.
+         */
+        public int getCorrectCount() {
+            return this.party.getCurrentState().getCorrectCount(this);
+        }
+
+        /**
+         *
+         * @return The number of wrong guesses in the current state of the
+         *         party.
+         */
+        public int getWrongCount() {
+            return this.party.getCurrentState().getWrongCount(this);
+        }
+    }
+
+    /**
+     * An applied guess together with the state of the party right after it.
+     *
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Guess {
+        /**
+         * The party.
+         *
+         */
+        private final PartyGame party;
+        /**
+         * The player that made the guess, if any.
+         *
+         */
+        private final Player player;
+        /**
+         * The guessed character (upper case).
+         *
+         */
+        private final char character;
+        /**
+         * Whether the guess was correct.
+         *
+         */
+        private final boolean correct;
+        /**
+         * The state of the party after the guess.
+         *
+         */
+        @Getter(AccessLevel.NONE)
+        private final long state;
+
+        /**
+         *
+         * @return The masked word after the guess (like
+         *         {@link Game#getMaskedWord()}).
+         */
+        public String getMaskedWord() {
+            final String word = this.party.word;
+            final char[] result = new char[word.length() * 2 - 1];
+            for (int i = 0; i < word.length(); i++) {
+                final char character = word.charAt(i);
+                result[i * 2] = (this.state >>> character - 'A' & 1) != 0 ? character : '_';
+                if (i > 0) {
+                    result[i * 2 - 1] = ' ';
+                }
+            }
+            return new String(result);
+        }
+
+        /**
+         *
+         * @return The number of mistakes after the guess.
+         */
+        public int getMistakeCount() {
+            return PartyGame.mistakeCount(this.state);
+        }
+
+        /**
+         *
+         * @return The version of the party after the guess. That is the number
+         *         of applied guesses, so a participant can ignore guesses that
+         *         are older than the latest state it knows.
+         */
+        public int getVersion() {
+            return Long.bitCount(this.state & (PartyGame.LETTER_MASK | PartyGame.LETTER_MASK << PartyGame.LETTERS));
+        }
+
+        /**
+         *
+         * @return Whether the party is solved after the guess.
+         */
+        public boolean isSolved() {
+            return (this.state & PartyGame.SOLVED) != 0;
+        }
+
+        /**
+         *
+         * @return Whether the party is lost after the guess.
+         */
+        public boolean isLost() {
+            return (this.state & PartyGame.LOST) != 0;
+        }
+
+        /**
+         *
+         * @return Whether the party is finished after the guess.
+         */
+        public boolean isFinished() {
+            return (this.state & (PartyGame.SOLVED | PartyGame.LOST)) != 0;
+        }
+
+        /**
+         * Retrieves the number of correct guesses of the given player that
+         * are contained in the state after the guess.
+         *
+         * @param player
+         *            The player.
+         * @return The number of correct guesses.
+         */
+        public int getCorrectCount(final Player player) {
+            return this.count(player, 0);
+        }
+
+        /**
+         * Retrieves the number of wrong guesses of the given player that are
+         * contained in the state after the guess.
+         *
+         * @param player
+         *            The player.
+         * @return The number of wrong guesses.
+         */
+        public int getWrongCount(final Player player) {
+            return this.count(player, PartyGame.LETTERS);
+        }
+
+        /**
+         * Counts the letters of the state after the guess that are attributed
+         * to the given player.
+         *
+         * @param player
+         *            The player.
+         * @param offset
+         *            The bit of the first letter in the state (<code>0</code>
+         *            for the correct letters, {@link PartyGame#LETTERS} for
+         *            the wrong ones).
+         * @return The number of letters.
+         */
+        private int count(final Player player, final int offset) {
+            int count = 0;
+            for (int index = offset; index < offset + PartyGame.LETTERS; index++) {
+                if ((this.state >>> index & 1) != 0 && this.party.guessers.get(index) == player) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
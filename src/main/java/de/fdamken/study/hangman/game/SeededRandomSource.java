@@ -0,0 +1,67 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * A {@link RandomSource} that produces a reproducible sequence of random
+ * numbers for a given seed. Thus, the same sequence of games is generated for
+ * the same seed and dictionary.
+ *
+ * <p>
+ * This class is not thread safe. Use one instance per sequence that has to be
+ * reproducible.
+ * </p>
+ *
+ */
+public class SeededRandomSource implements RandomSource {
+    /**
+     * The generator.
+     *
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Constructor of SeededRandomSource.
+     *
+     * @param seed
+     *            The seed.
+     */
+    public SeededRandomSource(final long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.RandomSource#nextInt(int)
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return this.random.nextInt(bound);
+    }
+}
@@ -0,0 +1,429 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An index over a {@link Dictionary} for suggesting the letter that is most
+ * likely contained in the word of a game.
+ *
+ * <p>
+ * The words are bucketed by their length. For every bucket there is a bitset
+ * for every (position, letter) pair and for every letter (whether a word
+ * contains it at all), with bit <code>i</code> standing for the
+ * <code>i</code>-th word of the bucket. The words that are still possible for
+ * a masked word are then found by combining these bitsets 64 words at a time,
+ * and the best letter is the one that is contained in the most of them.
+ * </p>
+ *
+ * <p>
+ * The index takes about <code>26 * (n + l)</code> bits with <code>n</code>
+ * being the total length of all words and <code>l</code> being the number of
+ * words.
+ * </p>
+ *
+ */
+public class SolverIndex {
+    /**
+     * The number of letters in the alphabet.
+     *
+     */
+    private static final int LETTERS = 26;
+
+    /**
+     * The buckets (indexed by the word length). A bucket is <code>null</code>
+     * if there are no words of the length.
+     *
+     */
+    private final Bucket[] buckets;
+
+    /**
+     * Constructor of SolverIndex.
+     *
+     * @param dictionary
+     *            The dictionary to index.
+     */
+    SolverIndex(final Dictionary dictionary) {
+        final int size = dictionary.size();
+
+        int maxLength = 0;
+        for (int i = 0; i < size; i++) {
+            maxLength = Math.max(maxLength, dictionary.getLength(i));
+        }
+        final int[] counts = new int[maxLength + 1];
+        for (int i = 0; i < size; i++) {
+            counts[dictionary.getLength(i)]++;
+        }
+
+        this.buckets = new Bucket[maxLength + 1];
+        for (int length = 1; length <= maxLength; length++) {
+            if (counts[length] > 0) {
+                this.buckets[length] = new Bucket(length, counts[length]);
+                counts[length] = 0;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            final int length = dictionary.getLength(i);
+            if (length > 0) {
+                this.buckets[length].add(counts[length]++, dictionary.getWord(i));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the {@link SolverIndex} for the given game. That is the index
+     * of the dictionary the word was chosen from or, for custom words, of the
+     * dictionary of the language of the game.
+     *
+     * @param game
+     *            The game.
+     * @param fallback
+     *            The language to use if the game is a custom word of an
+     *            unknown language.
+     * @return The {@link SolverIndex}.
+     * @throws IOException
+     *             If the dictionary cannot be loaded.
+     */
+    public static SolverIndex of(final Game game, final Language fallback) throws IOException {
+        final Dictionary dictionary = game.getDictionary();
+        if (dictionary != null) {
+            return dictionary.getSolverIndex();
+        }
+        return Dictionaries.get(game.getLanguage() == null ? fallback : game.getLanguage()).getSolverIndex();
+    }
+
+    /**
+     * Converts the given letters into a letter mask (bit <code>0</code> is
+     * <code>A</code>, bit <code>25</code> is <code>Z</code>, case
+     * insensitive). All other characters are ignored.
+     *
+     * @param letters
+     *            The letters.
+     * @return The letter mask.
+     */
+    public static int mask(final CharSequence letters) {
+        int mask = 0;
+        for (int i = 0; i < letters.length(); i++) {
+            final int letter = SolverIndex.letter(letters.charAt(i));
+            if (letter >= 0) {
+                mask |= 1 << letter;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Suggests the next letter to guess for the given game. The letters that
+     * were guessed wrong on the game are excluded.
+     *
+     * @param game
+     *            The game.
+     * @param excludedMask
+     *            Further letters that must not be suggested as a mask (see
+     *            {@link #mask(CharSequence)}). The words containing these
+     *            letters are not considered either.
+     * @return The {@link Hint}.
+     */
+    public Hint hint(final Game game, final int excludedMask) {
+        final String maskedWord;
+        final int guessedMask;
+        final int wrongMask;
+        synchronized (game) {
+            maskedWord = game.getMaskedWord();
+            guessedMask = game.getGuessedMask();
+            wrongMask = game.getWrongMask();
+        }
+
+        final char[] pattern = new char[(maskedWord.length() + 1) / 2];
+        for (int i = 0; i < pattern.length; i++) {
+            final char character = maskedWord.charAt(i * 2);
+            pattern[i] = character == '_' ? 0 : character;
+        }
+        return this.hint(pattern, guessedMask, (wrongMask | excludedMask) & ~guessedMask);
+    }
+
+    /**
+     * Suggests the next letter to guess for the given pattern.
+     *
+     * @param pattern
+     *            The pattern of the word. Every position that is not revealed
+     *            yet is <code>0</code>.
+     * @param guessedMask
+     *            The letters that were guessed correctly (i.e. the revealed
+     *            letters).
+     * @param excludedMask
+     *            The letters that are not contained in the word.
+     * @return The {@link Hint}.
+     */
+    Hint hint(final char[] pattern, final int guessedMask, final int excludedMask) {
+        final Bucket bucket = pattern.length < this.buckets.length ? this.buckets[pattern.length] : null;
+        if (bucket == null) {
+            return new Hint(null, 0, 0);
+        }
+
+        final long[] candidates = bucket.all();
+        for (int position = 0; position < pattern.length; position++) {
+            if (pattern[position] != 0) {
+                final int letter = SolverIndex.letter(pattern[position]);
+                if (letter < 0) {
+                    return new Hint(null, 0, 0);
+                }
+                bucket.and(candidates, bucket.positionOffset(position, letter));
+            } else {
+                // A revealed letter is revealed at all of its positions.
+                for (int letter = 0; letter < SolverIndex.LETTERS; letter++) {
+                    if ((guessedMask >>> letter & 1) != 0) {
+                        bucket.andNot(candidates, bucket.positionOffset(position, letter));
+                    }
+                }
+            }
+        }
+        for (int letter = 0; letter < SolverIndex.LETTERS; letter++) {
+            if ((excludedMask >>> letter & 1) != 0) {
+                bucket.andNot(candidates, bucket.presenceOffset(letter));
+            }
+        }
+
+        final int count = Bucket.count(candidates);
+        int bestLetter = -1;
+        int bestMatching = 0;
+        for (int letter = 0; letter < SolverIndex.LETTERS; letter++) {
+            if (((guessedMask | excludedMask) >>> letter & 1) == 0) {
+                final int matching = bucket.countAnd(candidates, bucket.presenceOffset(letter));
+                if (matching > bestMatching) {
+                    bestLetter = letter;
+                    bestMatching = matching;
+                }
+            }
+        }
+        return new Hint(bestLetter < 0 ? null : (char) ('A' + bestLetter), count, bestMatching);
+    }
+
+    /**
+     * Converts the given character into the index of the letter.
+     *
+     * @param character
+     *            The character (case insensitive).
+     * @return The index of the letter (<code>0</code> for <code>A</code>),
+     *         or <code>-1</code> if the character is no letter.
+     */
+    private static int letter(final char character) {
+        final int letter = (character & 0xDF) - 'A';
+        return letter >= 0 && letter < SolverIndex.LETTERS ? letter : -1;
+    }
+
+    /**
+     * A suggestion of the next letter to guess.
+     *
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hint {
+        /**
+         * The suggested letter, if any. This is <code>null</code> if there
+         * is no possible word left.
+         *
+         */
+        private final Character character;
+        /**
+         * The number of words that are still possible.
+         *
+         */
+        private final int candidates;
+        /**
+         * The number of possible words that contain the suggested letter.
+         *
+         */
+        private final int matching;
+    }
+
+    /**
+     * The bitsets of all words with the same length.
+     *
+     */
+    private static class Bucket {
+        /**
+         * The length of the words.
+         *
+         */
+        private final int length;
+        /**
+         * The number of words.
+         *
+         */
+        private final int size;
+        /**
+         * The number of longs of a single bitset.
+         *
+         */
+        private final int stride;
+        /**
+         * All bitsets. The bitset of (position, letter) is at
+         * {@link #positionOffset(int, int)}, the bitset of a letter is at
+         * {@link #presenceOffset(int)}.
+         *
+         */
+        private final long[] bits;
+
+        /**
+         * Constructor of Bucket.
+         *
+         * @param length
+         *            The length of the words.
+         * @param size
+         *            The number of words.
+         */
+        Bucket(final int length, final int size) {
+            this.length = length;
+            this.size = size;
+            this.stride = size + 63 >>> 6;
+            this.bits = new long[(length + 1) * SolverIndex.LETTERS * this.stride];
+        }
+
+        /**
+         * Adds the given word.
+         *
+         * @param index
+         *            The index of the word inside of this bucket.
+         * @param word
+         *            The word.
+         */
+        void add(final int index, final String word) {
+            final long bit = 1L << index;
+            final int word64 = index >>> 6;
+            for (int position = 0; position < this.length; position++) {
+                final int letter = SolverIndex.letter(word.charAt(position));
+                this.bits[this.positionOffset(position, letter) + word64] |= bit;
+                this.bits[this.presenceOffset(letter) + word64] |= bit;
+            }
+        }
+
+        /**
+         *
+         * @return A new bitset with all words of this bucket.
+         */
+        long[] all() {
+            final long[] result = new long[this.stride];
+            Arrays.fill(result, -1L);
+            if ((this.size & 63) != 0) {
+                result[result.length - 1] = (1L << this.size) - 1;
+            }
+            return result;
+        }
+
+        /**
+         * Intersects the given bitset with the bitset at the given offset.
+         *
+         * @param target
+         *            The bitset to modify.
+         * @param offset
+         *            The offset of the other bitset.
+         */
+        void and(final long[] target, final int offset) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] &= this.bits[offset + i];
+            }
+        }
+
+        /**
+         * Removes the bits of the bitset at the given offset from the given
+         * bitset.
+         *
+         * @param target
+         *            The bitset to modify.
+         * @param offset
+         *            The offset of the other bitset.
+         */
+        void andNot(final long[] target, final int offset) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] &= ~this.bits[offset + i];
+            }
+        }
+
+        /**
+         * Counts the bits of the intersection of the given bitset and the
+         * bitset at the given offset.
+         *
+         * @param bitset
+         *            The bitset.
+         * @param offset
+         *            The offset of the other bitset.
+         * @return The number of bits set in both bitsets.
+         */
+        int countAnd(final long[] bitset, final int offset) {
+            int count = 0;
+            for (int i = 0; i < bitset.length; i++) {
+                count += Long.bitCount(bitset[i] & this.bits[offset + i]);
+            }
+            return count;
+        }
+
+        /**
+         *
+         * @param position
+         *            The position inside of the word.
+         * @param letter
+         *            The index of the letter.
+         * @return The offset of the bitset of the words with the given letter
+         *         at the given position.
+         */
+        int positionOffset(final int position, final int letter) {
+            return (position * SolverIndex.LETTERS + letter) * this.stride;
+        }
+
+        /**
+         *
+         * @param letter
+         *            The index of the letter.
+         * @return The offset of the bitset of the words containing the given
+         *         letter.
+         */
+        int presenceOffset(final int letter) {
+            return this.positionOffset(this.length, letter);
+        }
+
+        /**
+         * Counts the bits of the given bitset.
+         *
+         * @param bitset
+         *            The bitset.
+         * @return The number of bits set.
+         */
+        static int count(final long[] bitset) {
+            int count = 0;
+            for (final long bits : bitset) {
+                count += Long.bitCount(bits);
+            }
+            return count;
+        }
+    }
+}
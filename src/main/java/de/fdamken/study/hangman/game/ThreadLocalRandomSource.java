@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+
+/**
+ * A {@link RandomSource} that uses a separate {@link SplittableRandom} per
+ * thread, so concurrent callers never contend. All generators are split from
+ * a root generator that is seeded from a {@link SecureRandom} once.
+ *
+ * <p>
+ * This is the default {@link RandomSource} of the {@link GameGenerator}.
+ * </p>
+ *
+ */
+public final class ThreadLocalRandomSource implements RandomSource {
+    /**
+     * The singleton instance.
+     *
+     */
+    public static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+    /**
+     * The root generator all thread-local generators are split from.
+     *
+     */
+    private static final SplittableRandom ROOT = new SplittableRandom(new SecureRandom().nextLong());
+
+    /**
+     * The generators of all threads.
+     *
+     */
+    private static final ThreadLocal<SplittableRandom> RANDOMS = ThreadLocal.withInitial(() -> {
+        synchronized (ThreadLocalRandomSource.ROOT) {
+            return ThreadLocalRandomSource.ROOT.split();
+        }
+    });
+
+    /**
+     * Constructor of ThreadLocalRandomSource.
+     *
+     */
+    private ThreadLocalRandomSource() {
+        // Singleton.
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.RandomSource#nextInt(int)
+     */
+    @Override
+    public int nextInt(final int bound) {
+        return ThreadLocalRandomSource.RANDOMS.get().nextInt(bound);
+    }
+}
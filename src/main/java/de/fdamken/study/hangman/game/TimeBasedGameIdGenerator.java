@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link GameIdGenerator} that builds the IDs from the current time (41
+ * bits, in milliseconds since {@link #EPOCH}), the ID of the node (10 bits)
+ * and a counter (12 bits). So IDs are unique across up to 1024 nodes without
+ * any coordination and generating an ID is only a compare-and-set.
+ *
+ * <p>
+ * If more than 4096 IDs are generated within one millisecond (or the clock
+ * goes backwards), the IDs continue with the following millisecond instead of
+ * waiting for the clock. The IDs are sortable by their creation time but they
+ * are easy to guess (see {@link KeyedGameIdGenerator}).
+ * </p>
+ *
+ */
+public class TimeBasedGameIdGenerator implements GameIdGenerator {
+    /**
+     * The time the timestamps are relative to (2016-08-01T00:00:00Z).
+     *
+     */
+    public static final long EPOCH = 1_470_009_600_000L;
+    /**
+     * The number of bits of the node ID.
+     *
+     */
+    public static final int NODE_BITS = 10;
+    /**
+     * The maximum node ID.
+     *
+     */
+    public static final int MAX_NODE = (1 << TimeBasedGameIdGenerator.NODE_BITS) - 1;
+    /**
+     * The number of bits of the counter.
+     *
+     */
+    private static final int COUNTER_BITS = 12;
+    /**
+     * The mask of the counter.
+     *
+     */
+    private static final long COUNTER_MASK = (1L << TimeBasedGameIdGenerator.COUNTER_BITS) - 1;
+
+    /**
+     * The ID of this node.
+     *
+     */
+    private final long node;
+    /**
+     * The last timestamp and counter (<code>timestamp &lt;&lt; 12 | counter</code>).
+     *
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * Constructor of TimeBasedGameIdGenerator.
+     *
+     * @param node
+     *            The ID of this node (between <code>0</code> and
+     *            {@link #MAX_NODE}). All nodes that share games must have
+     *            distinct IDs.
+     */
+    public TimeBasedGameIdGenerator(final int node) {
+        if (node < 0 || node > TimeBasedGameIdGenerator.MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + TimeBasedGameIdGenerator.MAX_NODE + "!");
+        }
+
+        this.node = node;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameIdGenerator#nextId()
+     */
+    @Override
+    public long nextId() {
+        final long now = System.currentTimeMillis() - TimeBasedGameIdGenerator.EPOCH;
+        long previous;
+        long next;
+        do {
+            previous = this.state.get();
+            next = now > previous >>> TimeBasedGameIdGenerator.COUNTER_BITS
+                    ? now << TimeBasedGameIdGenerator.COUNTER_BITS
+                    : previous + 1;
+        } while (!this.state.compareAndSet(previous, next));
+
+        final long timestamp = next >>> TimeBasedGameIdGenerator.COUNTER_BITS;
+        return timestamp << TimeBasedGameIdGenerator.NODE_BITS + TimeBasedGameIdGenerator.COUNTER_BITS
+                | this.node << TimeBasedGameIdGenerator.COUNTER_BITS | next & TimeBasedGameIdGenerator.COUNTER_MASK;
+    }
+}
@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import lombok.Data;
+
+/**
+ * Constraints on the words that are chosen by the {@link GameGenerator}. All
+ * bounds are inclusive and optional (<code>null</code> means unbounded).
+ *
+ */
+@Data
+public class WordConstraints {
+    /**
+     * The minimum length of the word.
+     *
+     */
+    private Integer minLength;
+    /**
+     * The maximum length of the word.
+     *
+     */
+    private Integer maxLength;
+    /**
+     * The minimum number of distinct letters in the word.
+     *
+     */
+    private Integer minDistinctLetters;
+    /**
+     * The maximum number of distinct letters in the word.
+     *
+     */
+    private Integer maxDistinctLetters;
+    /**
+     * The minimum difficulty of the word (see {@link WordIndex}).
+     *
+     */
+    private Integer minDifficulty;
+    /**
+     * The maximum difficulty of the word (see {@link WordIndex}).
+     *
+     */
+    private Integer maxDifficulty;
+
+    /**
+     *
+     * @return Whether no constraint is set at all.
+     */
+    public boolean isUnconstrained() {
+        return this.minLength == null && this.maxLength == null && this.minDistinctLetters == null
+                && this.maxDistinctLetters == null && this.minDifficulty == null && this.maxDifficulty == null;
+    }
+}
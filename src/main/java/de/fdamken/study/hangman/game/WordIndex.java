@@ -0,0 +1,280 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.game;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Secondary indexes over a {@link Dictionary} for choosing random words that
+ * match {@link WordConstraints}.
+ *
+ * <p>
+ * The words are bucketed by their length and their number of distinct
+ * letters. Inside of a bucket the words are sorted by their difficulty, so
+ * the words of a bucket that match a difficulty range can be found by a
+ * binary search. Choosing a random word therefore takes
+ * <code>O(b * log(n))</code> with <code>b</code> being the number of matching
+ * buckets (which is bounded by the length and the alphabet).
+ * </p>
+ *
+ * <p>
+ * The difficulty of a word is a score between <code>0</code> and
+ * {@link #MAX_DIFFICULTY}. It is based on how common the letters of the word
+ * are in the whole dictionary: The rarer the letters, the harder the word is
+ * to guess.
+ * </p>
+ *
+ */
+public class WordIndex {
+    /**
+     * The maximum difficulty score.
+     *
+     */
+    public static final int MAX_DIFFICULTY = 100;
+
+    /**
+     * The number of letters in the alphabet.
+     *
+     */
+    private static final int LETTERS = 26;
+
+    /**
+     * The length of the longest word.
+     *
+     */
+    private final int maxLength;
+    /**
+     * The difficulty of every word.
+     *
+     */
+    private final byte[] difficulties;
+    /**
+     * The buckets (indexed by the length and the number of distinct letters).
+     * Every bucket contains the indexes of its words sorted by difficulty, or
+     * is <code>null</code> if it is empty.
+     *
+     */
+    private final int[][][] buckets;
+
+    /**
+     * Constructor of WordIndex.
+     *
+     * @param dictionary
+     *            The dictionary to index.
+     */
+    WordIndex(final Dictionary dictionary) {
+        final int size = dictionary.size();
+
+        final int[] masks = new int[size];
+        IntStream.range(0, size).parallel().forEach(i -> masks[i] = dictionary.getLetterMask(i));
+
+        // The frequency of a letter is the ratio of words that contain it.
+        final int[] counts = new int[WordIndex.LETTERS];
+        for (final int mask : masks) {
+            for (int letter = 0; letter < WordIndex.LETTERS; letter++) {
+                counts[letter] += mask >>> letter & 1;
+            }
+        }
+        final double[] rarities = new double[WordIndex.LETTERS];
+        for (int letter = 0; letter < WordIndex.LETTERS; letter++) {
+            rarities[letter] = size == 0 ? 0 : 1 - (double) counts[letter] / size;
+        }
+
+        this.difficulties = new byte[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            double rarity = 0;
+            for (int letter = 0; letter < WordIndex.LETTERS; letter++) {
+                if ((masks[i] >>> letter & 1) != 0) {
+                    rarity += rarities[letter];
+                }
+            }
+            this.difficulties[i] = (byte) Math.round(WordIndex.MAX_DIFFICULTY * rarity / Integer.bitCount(masks[i]));
+        });
+
+        int maxLength = 0;
+        for (int i = 0; i < size; i++) {
+            maxLength = Math.max(maxLength, dictionary.getLength(i));
+        }
+        this.maxLength = maxLength;
+
+        // The word indexes are sorted together with their difficulty by
+        // packing both into a single long.
+        final long[][][] keys = new long[maxLength + 1][WordIndex.LETTERS + 1][];
+        final int[][] fill = new int[maxLength + 1][WordIndex.LETTERS + 1];
+        for (int i = 0; i < size; i++) {
+            fill[dictionary.getLength(i)][Integer.bitCount(masks[i])]++;
+        }
+        for (int length = 0; length <= maxLength; length++) {
+            for (int distinct = 0; distinct <= WordIndex.LETTERS; distinct++) {
+                if (fill[length][distinct] > 0) {
+                    keys[length][distinct] = new long[fill[length][distinct]];
+                    fill[length][distinct] = 0;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            final int length = dictionary.getLength(i);
+            final int distinct = Integer.bitCount(masks[i]);
+            keys[length][distinct][fill[length][distinct]++] = (long) this.difficulties[i] << 32 | i;
+        }
+
+        this.buckets = new int[maxLength + 1][WordIndex.LETTERS + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            for (int distinct = 0; distinct <= WordIndex.LETTERS; distinct++) {
+                final long[] bucketKeys = keys[length][distinct];
+                if (bucketKeys != null) {
+                    Arrays.sort(bucketKeys);
+                    final int[] bucket = new int[bucketKeys.length];
+                    for (int i = 0; i < bucket.length; i++) {
+                        bucket[i] = (int) bucketKeys[i];
+                    }
+                    this.buckets[length][distinct] = bucket;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the difficulty of the word with the given index.
+     *
+     * @param index
+     *            The index of the word.
+     * @return The difficulty (between <code>0</code> and
+     *         {@link #MAX_DIFFICULTY}).
+     */
+    public int getDifficulty(final int index) {
+        return this.difficulties[index];
+    }
+
+    /**
+     * Counts the words that match the given constraints.
+     *
+     * @param constraints
+     *            The {@link WordConstraints} to match.
+     * @return The number of matching words.
+     */
+    public int count(final WordConstraints constraints) {
+        return this.select(constraints, -1);
+    }
+
+    /**
+     * Chooses a random word that matches the given constraints. Every
+     * matching word has the same chance of being chosen.
+     *
+     * @param constraints
+     *            The {@link WordConstraints} to match.
+     * @param random
+     *            The {@link RandomSource} to use.
+     * @return The index of the chosen word, or <code>-1</code> if no word
+     *         matches the constraints.
+     */
+    public int choose(final WordConstraints constraints, final RandomSource random) {
+        final int count = this.count(constraints);
+        if (count == 0) {
+            return -1;
+        }
+        return this.select(constraints, random.nextInt(count));
+    }
+
+    /**
+     * Walks through all matching words. If <code>target</code> is negative,
+     * the words are only counted. Otherwise the index of the
+     * <code>target</code>-th matching word is returned.
+     *
+     * @param constraints
+     *            The {@link WordConstraints} to match.
+     * @param target
+     *            The position of the word to select, or a negative value for
+     *            counting.
+     * @return The number of matching words, or the index of the selected word.
+     */
+    private int select(final WordConstraints constraints, final int target) {
+        final int minLength = WordIndex.bound(constraints.getMinLength(), 1);
+        final int maxLength = Math.min(WordIndex.bound(constraints.getMaxLength(), this.maxLength), this.maxLength);
+        final int minDistinct = WordIndex.bound(constraints.getMinDistinctLetters(), 1);
+        final int maxDistinct = Math.min(WordIndex.bound(constraints.getMaxDistinctLetters(), WordIndex.LETTERS),
+                WordIndex.LETTERS);
+        final int minDifficulty = WordIndex.bound(constraints.getMinDifficulty(), 0);
+        final int maxDifficulty = WordIndex.bound(constraints.getMaxDifficulty(), WordIndex.MAX_DIFFICULTY);
+
+        int count = 0;
+        for (int length = Math.max(minLength, 1); length <= maxLength; length++) {
+            for (int distinct = Math.max(minDistinct, 1); distinct <= Math.min(maxDistinct, length); distinct++) {
+                final int[] bucket = this.buckets[length][distinct];
+                if (bucket == null) {
+                    continue;
+                }
+
+                final int from = this.lowerBound(bucket, minDifficulty);
+                final int matching = Math.max(0, this.lowerBound(bucket, maxDifficulty + 1) - from);
+                if (target >= 0 && target < count + matching) {
+                    return bucket[from + target - count];
+                }
+                count += matching;
+            }
+        }
+        return target < 0 ? count : -1;
+    }
+
+    /**
+     * Finds the position of the first word in the given bucket with a
+     * difficulty of at least <code>difficulty</code>.
+     *
+     * @param bucket
+     *            The bucket to search.
+     * @param difficulty
+     *            The difficulty to search for.
+     * @return The position (<code>bucket.length</code> if there is no such
+     *         word).
+     */
+    private int lowerBound(final int[] bucket, final int difficulty) {
+        int low = 0;
+        int high = bucket.length;
+        while (low < high) {
+            final int middle = low + high >>> 1;
+            if (this.difficulties[bucket[middle]] < difficulty) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the given bound or the default if it is not set.
+     *
+     * @param bound
+     *            The bound, may be <code>null</code>.
+     * @param defaultValue
+     *            The default.
+     * @return The bound or the default.
+     */
+    private static int bound(final Integer bound, final int defaultValue) {
+        return bound == null ? defaultValue : bound;
+    }
+}
@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import de.fdamken.study.hangman.game.Dictionaries;
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.GameStatistics;
+
+/**
+ * Publishes the metrics of the games through the actuator
+ * (<code>/metrics</code>):
+ *
+ * <ul>
+ * <li><code>games.created.&lt;language&gt;</code> and
+ * <code>games.created.custom</code>: The number of created games.</li>
+ * <li><code>games.guesses</code>, <code>games.guesses.correct</code> and
+ * <code>games.guesses.wrong</code>: The number of guesses.</li>
+ * <li><code>games.guesses.rate</code>: The guesses per second (moving average
+ * over one minute).</li>
+ * <li><code>games.solved</code>, <code>games.lost</code> and
+ * <code>games.solved.ratio</code>: The number of finished games.</li>
+ * <li><code>games.running</code> and <code>games.evicted</code>: The state of
+ * the {@link GameRepository}.</li>
+ * <li><code>dictionary.&lt;language&gt;.size</code> and
+ * <code>dictionary.&lt;language&gt;.load-time</code>: The loaded
+ * dictionaries.</li>
+ * <li><code>latency.&lt;endpoint&gt;.count</code>,
+ * <code>.p50</code>, <code>.p99</code>, <code>.p999</code> and
+ * <code>.max</code>: The latencies of the endpoints (in milliseconds).</li>
+ * </ul>
+ *
+ */
+public class GameMetrics implements PublicMetrics {
+    /**
+     * The time window of the moving average of the guess rate (in
+     * milliseconds).
+     *
+     */
+    private static final double RATE_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * The {@link GameStatistics} to publish.
+     *
+     */
+    private final GameStatistics statistics;
+    /**
+     * The {@link GameRepository} to publish.
+     *
+     */
+    private final GameRepository repository;
+    /**
+     * The latencies packed by the name of their endpoint.
+     *
+     */
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * The number of guesses when the rate was updated last.
+     *
+     */
+    private long rateCount;
+    /**
+     * The time the rate was updated last (in milliseconds).
+     *
+     */
+    private long rateTime = System.currentTimeMillis();
+    /**
+     * The moving average of the guesses per second.
+     *
+     */
+    private double rate;
+
+    /**
+     * Constructor of GameMetrics.
+     *
+     * @param statistics
+     *            The {@link GameStatistics} to publish.
+     * @param repository
+     *            The {@link GameRepository} to publish.
+     */
+    public GameMetrics(final GameStatistics statistics, final GameRepository repository) {
+        this.statistics = statistics;
+        this.repository = repository;
+    }
+
+    /**
+     * Retrieves the latency histogram of the given endpoint.
+     *
+     * @param endpoint
+     *            The name of the endpoint.
+     * @return The {@link LatencyHistogram}. It is created if necessary.
+     */
+    public LatencyHistogram getLatency(final String endpoint) {
+        return this.latencies.computeIfAbsent(endpoint, key -> new LatencyHistogram());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.boot.actuate.endpoint.PublicMetrics#metrics()
+     */
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> metrics = new ArrayList<>();
+        for (final Language language : Language.values()) {
+            final String name = language.name().toLowerCase(Locale.ROOT);
+            metrics.add(new Metric<>("games.created." + name, this.statistics.getCreatedCount(language)));
+
+            final Dictionary dictionary = Dictionaries.getIfLoaded(language);
+            if (dictionary != null) {
+                metrics.add(new Metric<>("dictionary." + name + ".size", dictionary.size()));
+                metrics.add(new Metric<>("dictionary." + name + ".load-time", Dictionaries.getLoadTime(language)));
+            }
+        }
+        metrics.add(new Metric<>("games.created.custom", this.statistics.getCustomCreatedCount()));
+
+        metrics.add(new Metric<>("games.guesses", this.statistics.getGuessCount()));
+        metrics.add(new Metric<>("games.guesses.correct", this.statistics.getCorrectGuessCount()));
+        metrics.add(new Metric<>("games.guesses.wrong", this.statistics.getWrongGuessCount()));
+        metrics.add(new Metric<>("games.guesses.rate", this.updateRate()));
+
+        final long solved = this.statistics.getSolvedCount();
+        final long lost = this.statistics.getLostCount();
+        metrics.add(new Metric<>("games.solved", solved));
+        metrics.add(new Metric<>("games.lost", lost));
+        metrics.add(new Metric<>("games.solved.ratio", solved + lost == 0 ? 0 : (double) solved / (solved + lost)));
+
+        metrics.add(new Metric<>("games.running", this.repository.size()));
+        metrics.add(new Metric<>("games.evicted", this.repository.getEvictionCount()));
+
+        for (final Map.Entry<String, LatencyHistogram> entry : this.latencies.entrySet()) {
+            final String prefix = "latency." + entry.getKey();
+            final LatencyHistogram histogram = entry.getValue();
+            metrics.add(new Metric<>(prefix + ".count", histogram.getCount()));
+            metrics.add(new Metric<>(prefix + ".p50", histogram.getPercentile(0.5)));
+            metrics.add(new Metric<>(prefix + ".p99", histogram.getPercentile(0.99)));
+            metrics.add(new Metric<>(prefix + ".p999", histogram.getPercentile(0.999)));
+            metrics.add(new Metric<>(prefix + ".max", histogram.getMax()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Updates the moving average of the guess rate with the guesses since the
+     * last update. The older guesses decay exponentially.
+     *
+     * @return The guesses per second.
+     */
+    private synchronized double updateRate() {
+        final long now = System.currentTimeMillis();
+        final long elapsed = now - this.rateTime;
+        if (elapsed > 0) {
+            final long count = this.statistics.getGuessCount();
+            final double current = (count - this.rateCount) * 1000.0 / elapsed;
+            this.rate += (1 - Math.exp(-elapsed / GameMetrics.RATE_WINDOW)) * (current - this.rate);
+            this.rateCount = count;
+            this.rateTime = now;
+        }
+        return this.rate;
+    }
+}
@@ -0,0 +1,183 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with a bounded relative error.
+ *
+ * <p>
+ * The latencies are recorded in microseconds into logarithmic buckets: Every
+ * power of two is split into {@link #SUB_BUCKETS} linear buckets, so a
+ * percentile is off by at most 12.5%. Every bucket is a {@link LongAdder}, so
+ * recording is contention-free and never allocates.
+ * </p>
+ *
+ */
+public class LatencyHistogram {
+    /**
+     * The number of bits of the linear buckets per power of two.
+     *
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * The number of linear buckets per power of two.
+     *
+     */
+    private static final int SUB_BUCKETS = 1 << LatencyHistogram.SUB_BUCKET_BITS;
+    /**
+     * The values below this are recorded exactly (one bucket per value).
+     *
+     */
+    private static final int EXACT_LIMIT = 2 * LatencyHistogram.SUB_BUCKETS;
+    /**
+     * The number of buckets (enough for all non-negative long values).
+     *
+     */
+    private static final int BUCKET_COUNT = LatencyHistogram.EXACT_LIMIT
+            + (Long.SIZE - 1 - LatencyHistogram.SUB_BUCKET_BITS - 1) * LatencyHistogram.SUB_BUCKETS;
+
+    /**
+     * The buckets.
+     *
+     */
+    private final LongAdder[] buckets = new LongAdder[LatencyHistogram.BUCKET_COUNT];
+    /**
+     * The maximum latency (in microseconds).
+     *
+     */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor of LatencyHistogram.
+     *
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the given latency.
+     *
+     * @param nanos
+     *            The latency (in nanoseconds).
+     */
+    public void record(final long nanos) {
+        final long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0);
+        this.buckets[LatencyHistogram.bucket(micros)].increment();
+        this.max.accumulate(micros);
+    }
+
+    /**
+     *
+     * @return The number of recorded latencies.
+     */
+    public long getCount() {
+        long count = 0;
+        for (final LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     *
+     * @return The maximum latency (in milliseconds).
+     */
+    public double getMax() {
+        return this.max.get() / 1000.0;
+    }
+
+    /**
+     * Computes the given percentile. The result is the upper bound of the
+     * bucket that contains the percentile.
+     *
+     * @param percentile
+     *            The percentile (between <code>0</code> and <code>1</code>,
+     *            e.g. <code>0.99</code>).
+     * @return The latency (in milliseconds), or <code>0</code> if nothing was
+     *         recorded.
+     */
+    public double getPercentile(final double percentile) {
+        final long[] counts = new long[this.buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max((long) Math.ceil(percentile * total), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.upperBound(i), this.max.get()) / 1000.0;
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Computes the bucket of the given value.
+     *
+     * @param value
+     *            The value (non-negative).
+     * @return The index of the bucket.
+     */
+    private static int bucket(final long value) {
+        if (value < LatencyHistogram.EXACT_LIMIT) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - LatencyHistogram.SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & LatencyHistogram.SUB_BUCKETS - 1;
+        return LatencyHistogram.EXACT_LIMIT + (shift - 1) * LatencyHistogram.SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Computes the largest value of the given bucket.
+     *
+     * @param bucket
+     *            The index of the bucket.
+     * @return The largest value.
+     */
+    private static long upperBound(final int bucket) {
+        if (bucket < LatencyHistogram.EXACT_LIMIT) {
+            return bucket;
+        }
+        final int shift = (bucket - LatencyHistogram.EXACT_LIMIT) / LatencyHistogram.SUB_BUCKETS + 1;
+        final int subBucket = (bucket - LatencyHistogram.EXACT_LIMIT) % LatencyHistogram.SUB_BUCKETS;
+        return ((long) (LatencyHistogram.SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records the latency of every handled request into the
+ * {@link LatencyHistogram} of its handler method (see
+ * {@link GameMetrics#getLatency(String)}).
+ *
+ */
+@RequiredArgsConstructor
+public class LatencyInterceptor extends HandlerInterceptorAdapter {
+    /**
+     * The name of the request attribute that holds the start time.
+     *
+     */
+    private static final String START_ATTRIBUTE = LatencyInterceptor.class.getName() + ".start";
+
+    /**
+     * The {@link GameMetrics} to record into.
+     *
+     */
+    private final GameMetrics metrics;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.servlet.handler.HandlerInterceptorAdapter#preHandle(javax.servlet.http.HttpServletRequest,
+     *      javax.servlet.http.HttpServletResponse, java.lang.Object)
+     */
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        // Asynchronous requests are dispatched twice, the first start counts.
+        if (request.getAttribute(LatencyInterceptor.START_ATTRIBUTE) == null) {
+            request.setAttribute(LatencyInterceptor.START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.servlet.handler.HandlerInterceptorAdapter#afterCompletion(javax.servlet.http.HttpServletRequest,
+     *      javax.servlet.http.HttpServletResponse, java.lang.Object,
+     *      java.lang.Exception)
+     */
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response, final Object handler,
+            final Exception ex) {
+        final Object start = request.getAttribute(LatencyInterceptor.START_ATTRIBUTE);
+        if (start instanceof Long && handler instanceof HandlerMethod) {
+            final String endpoint = ((HandlerMethod) handler).getMethod().getName();
+            this.metrics.getLatency(endpoint).record(System.nanoTime() - (Long) start);
+        }
+    }
+}
@@ -25,12 +25,21 @@
  */
 package de.fdamken.study.hangman.rest;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -38,32 +47,209 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.fdamken.study.hangman.game.Dictionaries;
 import de.fdamken.study.hangman.game.Game;
 import de.fdamken.study.hangman.game.GameGenerator;
 import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameIds;
+import de.fdamken.study.hangman.game.RandomSource;
+import de.fdamken.study.hangman.game.SeededRandomSource;
+import de.fdamken.study.hangman.game.SolverIndex;
+import de.fdamken.study.hangman.game.WordConstraints;
 
 /**
  * The REST controller for the game API.
  *
+ * <p>
+ * Generating games and guessing is executed asynchronously on a bounded
+ * executor, so slow requests cannot block all request threads. If the
+ * executor is saturated, the request is rejected with <code>503</code> and a
+ * <code>Retry-After</code> header.
+ * </p>
+ *
+ * <p>
+ * Games are sent as {@link GameView snapshots} that are serialized using a
+ * cached {@link ObjectWriter}. Every response carries an <code>ETag</code>
+ * derived from the version of the game, so polling clients can use
+ * conditional requests and receive <code>304 Not Modified</code> if the game
+ * did not change.
+ * </p>
+ *
  */
 @RestController
 @RequestMapping("/api/games")
 public class GameRestController {
+    /**
+     * The media type of newline-delimited JSON.
+     *
+     */
+    public static final String NDJSON = "application/x-ndjson";
+    /**
+     * The number of games after which the output is flushed while generating
+     * games in bulk.
+     *
+     */
+    private static final int BULK_FLUSH_INTERVAL = 64;
+
+    /**
+     * The {@link ObjectMapper} that is used for streaming responses.
+     *
+     */
+    private final ObjectMapper mapper;
+    /**
+     * The {@link ObjectWriter} that is used to serialize the responses.
+     *
+     */
+    private final ObjectWriter writer;
+    /**
+     * The executor that executes the asynchronous requests.
+     *
+     */
+    private final ThreadPoolExecutor gameExecutor;
+
+    /**
+     * The number of seconds a client should wait before retrying a rejected
+     * request.
+     *
+     */
+    @Value("${hangman.async.retry-after:1}")
+    private long retryAfter;
+    /**
+     * The maximum number of games that can be generated at once. Every game is
+     * a running game, so this has to be well below the capacity of the
+     * repository.
+     *
+     */
+    @Value("${hangman.bulk.max-size:1000}")
+    private int maxBulkSize;
+    /**
+     * The time after which generating games in bulk is aborted (in
+     * milliseconds).
+     *
+     */
+    @Value("${hangman.bulk.timeout:60000}")
+    private long bulkTimeout;
+
+    /**
+     * Constructor of GameRestController.
+     *
+     * @param mapper
+     *            The {@link ObjectMapper} that is used for serialization.
+     * @param gameExecutor
+     *            The executor that executes the asynchronous requests.
+     */
+    public GameRestController(final ObjectMapper mapper, final ThreadPoolExecutor gameExecutor) {
+        this.mapper = mapper;
+        this.writer = mapper.writerFor(GameResponse.class);
+        this.gameExecutor = gameExecutor;
+    }
+
     /**
      * Generates a game.
      *
      * @param language
      *            The language to generate a game for.
+     * @param constraints
+     *            The constraints the word has to match (request parameters
+     *            <code>minLength</code>, <code>maxLength</code>,
+     *            <code>minDistinctLetters</code>,
+     *            <code>maxDistinctLetters</code>, <code>minDifficulty</code>
+     *            and <code>maxDifficulty</code>).
+     * @param seed
+     *            The seed for choosing the word, if any. The same seed always
+     *            results in the same word.
      * @return The generated game wrapped inside a {@link ResponseEntity}.
+     */
+    @RequestMapping
+    public CompletableFuture<ResponseEntity<?>> generateGame(@RequestParam(name = "lang",
+                                                                           defaultValue = "ENG") final Language language,
+            final WordConstraints constraints, @RequestParam(required = false) final Long seed) {
+        return this.async(() -> {
+            final Game game = GameGenerator.generate(language, constraints, this.randomSource(seed));
+            if (game == null) {
+                return ResponseEntity.unprocessableEntity().build();
+            }
+
+            return this.respond(HttpStatus.CREATED, new GameResponse(new GameView(game)));
+        });
+    }
+
+    /**
+     * Generates multiple games at once. The games are streamed back as
+     * newline-delimited JSON while they are generated, each line has the same
+     * format as the response of
+     * {@link #generateGame(Language, WordConstraints, Long)}.
+     *
+     * @param language
+     *            The language to generate the games for.
+     * @param count
+     *            The number of games to generate. This must be between
+     *            <code>1</code> and {@link #maxBulkSize}.
+     * @param constraints
+     *            The constraints the words have to match (see
+     *            {@link #generateGame(Language, WordConstraints, Long)}).
+     * @param seed
+     *            The seed for choosing the words, if any. The same seed always
+     *            results in the same sequence of words.
+     * @return The stream of the generated games wrapped inside a
+     *         {@link ResponseEntity}. If the executor is saturated, the status
+     *         is <code>503</code> with a <code>Retry-After</code> header.
      * @throws IOException
      *             If any I/O error occurs.
      */
-    @RequestMapping
-    public ResponseEntity<?> generateGame(@RequestParam(name = "lang",
-                                                        defaultValue = "ENG") final Language language)
-            throws IOException {
-        return ResponseEntity.status(HttpStatus.CREATED).body(this.wrapGame(GameGenerator.generate(language)));
+    @RequestMapping(path = "/bulk",
+                    produces = GameRestController.NDJSON)
+    public ResponseEntity<ResponseBodyEmitter> generateGames(@RequestParam(name = "lang",
+                                                                           defaultValue = "ENG") final Language language,
+            @RequestParam final int count, final WordConstraints constraints,
+            @RequestParam(required = false) final Long seed) throws IOException {
+        if (count <= 0 || count > this.maxBulkSize
+                || Dictionaries.get(language).getIndex().count(constraints) == 0) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        // The games are generated on the bounded executor like all other
+        // requests. The output is sent in chunks of BULK_FLUSH_INTERVAL games.
+        // Sending fails once the emitter timed out, which stops the
+        // generation.
+        final MediaType mediaType = MediaType.parseMediaType(GameRestController.NDJSON);
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.bulkTimeout);
+        try {
+            this.gameExecutor.execute(() -> {
+                try {
+                    final RandomSource random = this.randomSource(seed);
+                    final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+                    final JsonGenerator generator = this.mapper.getFactory().createGenerator(chunk);
+                    generator.setRootValueSeparator(null);
+                    for (int i = 1; i <= count; i++) {
+                        this.writer.writeValue(generator,
+                                new GameResponse(new GameView(GameGenerator.generate(language, constraints, random))));
+                        generator.writeRaw('\n');
+                        if (i % GameRestController.BULK_FLUSH_INTERVAL == 0 || i == count) {
+                            generator.flush();
+                            emitter.send(chunk.toByteArray(), mediaType);
+                            chunk.reset();
+                        }
+                    }
+                    emitter.complete();
+                } catch (final IOException | RuntimeException ex) {
+                    emitter.completeWithError(ex);
+                }
+            });
+        } catch (final RejectedExecutionException ex) {
+            final HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(this.retryAfter));
+            return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).contentType(mediaType).body(emitter);
     }
 
     /**
@@ -71,29 +257,55 @@ public class GameRestController {
      *
      * @param word
      *            The custom word.
+     * @param language
+     *            The language of the custom word, if known. This is used for
+     *            hints (see {@link #hint(String, Language, String)}).
      * @return The newly created game wrapped inside a {@link ResponseEntity}.
+     * @throws JsonProcessingException
+     *             If the serialization fails.
      */
     @RequestMapping(path = "/{word}",
                     method = RequestMethod.PUT)
-    public ResponseEntity<?> createGame(@PathVariable final String word) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(this.wrapGame(new Game(word)));
+    public ResponseEntity<?> createGame(@PathVariable final String word,
+            @RequestParam(name = "lang",
+                          required = false) final Language language)
+            throws JsonProcessingException {
+        return this.respond(HttpStatus.CREATED,
+                new GameResponse(new GameView(new Game(language, word, Game.DEFAULT_MAX_MISTAKES))));
     }
 
     /**
      * Retrieves the game with the given ID.
      *
+     * <p>
+     * If the request contains an <code>If-None-Match</code> header matching the
+     * current version of the game, <code>304 Not Modified</code> is returned
+     * without a body.
+     * </p>
+     *
      * @param gameId
      *            The ID of the game to retrieve.
+     * @param request
+     *            The current request.
      * @return The game, if any, wrapped inside a {@link ResponseEntity}.
+     *         <code>null</code> if the game was not modified (the response is
+     *         already completed then).
+     * @throws JsonProcessingException
+     *             If the serialization fails.
      */
     @RequestMapping(path = "/{gameId}")
-    public ResponseEntity<?> retrieveGame(@PathVariable final UUID gameId) {
-        final Game game = Game.getGame(gameId);
+    public ResponseEntity<?> retrieveGame(@PathVariable final String gameId, final WebRequest request)
+            throws JsonProcessingException {
+        final Game game = this.findGame(gameId);
         if (game == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(this.wrapGame(game));
+        final GameView view = new GameView(game);
+        if (request.checkNotModified(view.getETag())) {
+            return null;
+        }
+        return this.respond(HttpStatus.OK, new GameResponse(view));
     }
 
     /**
@@ -107,33 +319,167 @@ public class GameRestController {
      */
     @RequestMapping(path = "/{gameId}",
                     method = RequestMethod.POST)
-    public ResponseEntity<?> quess(@PathVariable final UUID gameId, @RequestBody final Map<String, String> body) {
+    public CompletableFuture<ResponseEntity<?>> quess(@PathVariable final String gameId,
+            @RequestBody final Map<String, String> body) {
         final String characterString = body.get("character");
         if (characterString == null || characterString.length() != 1) {
-            return ResponseEntity.unprocessableEntity().build();
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().build());
         }
 
-        final Game game = Game.getGame(gameId);
-        if (game == null) {
-            return ResponseEntity.notFound().build();
+        return this.async(() -> {
+            final Game game = this.findGame(gameId);
+            if (game == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            final boolean correct = game.guess(characterString.charAt(0));
+            return this.respond(HttpStatus.OK, new GameResponse(new GameView(game), correct));
+        });
+    }
+
+    /**
+     * Executes multiple guesses on the game with the given ID in the given
+     * order. Guessing stops as soon as the game is solved or lost, so the
+     * remaining characters are ignored.
+     *
+     * @param gameId
+     *            The ID of the game to execute the guesses for.
+     * @param body
+     *            The body of the request containing the characters to guess
+     *            (property <code>characters</code>).
+     * @return The modified game wrapped inside a {@link ResponseEntity}. The
+     *         results of the executed guesses are contained in the property
+     *         <code>correct</code> (in the order of the characters).
+     */
+    @RequestMapping(path = "/{gameId}/guesses",
+                    method = RequestMethod.POST)
+    public CompletableFuture<ResponseEntity<?>> guessAll(@PathVariable final String gameId,
+            @RequestBody final Map<String, List<String>> body) {
+        final List<String> characterStrings = body.get("characters");
+        if (characterStrings == null || characterStrings.isEmpty()
+                || characterStrings.stream().anyMatch(x -> x == null || x.length() != 1)) {
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().build());
+        }
+
+        return this.async(() -> {
+            final Game game = this.findGame(gameId);
+            if (game == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            final List<Boolean> correct = new ArrayList<>(characterStrings.size());
+            for (final String characterString : characterStrings) {
+                if (game.isSolved() || game.isLost()) {
+                    break;
+                }
+                correct.add(game.guess(characterString.charAt(0)));
+            }
+            return this.respond(HttpStatus.OK, new GameResponse(new GameView(game), correct));
+        });
+    }
+
+    /**
+     * Suggests the letter that is most likely contained in the word of the
+     * game with the given ID, based on the words of the dictionary that are
+     * still possible (see {@link SolverIndex}).
+     *
+     * @param gameId
+     *            The ID of the game to suggest a letter for.
+     * @param language
+     *            The language of the dictionary to use if the game has a
+     *            custom word of an unknown language.
+     * @param exclude
+     *            Further letters that must not be suggested, in addition to
+     *            the letters that were guessed wrong on the game. Words
+     *            containing any of them are not considered.
+     * @return The hint (property <code>hint</code> with the properties
+     *         <code>character</code>, <code>candidates</code> and
+     *         <code>matching</code>) wrapped inside a {@link ResponseEntity}.
+     */
+    @RequestMapping(path = "/{gameId}/hint")
+    public CompletableFuture<ResponseEntity<?>> hint(@PathVariable final String gameId,
+            @RequestParam(name = "lang",
+                          defaultValue = "ENG") final Language language,
+            @RequestParam(defaultValue = "") final String exclude) {
+        return this.async(() -> {
+            final Game game = this.findGame(gameId);
+            if (game == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            final SolverIndex.Hint hint = SolverIndex.of(game, language).hint(game, SolverIndex.mask(exclude));
+            return ResponseEntity.ok(Collections.singletonMap("hint", hint));
+        });
+    }
+
+    /**
+     * Executes the given task on the {@link #gameExecutor}.
+     *
+     * @param task
+     *            The task to execute.
+     * @return The result of the task. If the executor is saturated, the result
+     *         is <code>503</code> with a <code>Retry-After</code> header.
+     */
+    private CompletableFuture<ResponseEntity<?>> async(final Callable<ResponseEntity<?>> task) {
+        final CompletableFuture<ResponseEntity<?>> future = new CompletableFuture<>();
+        try {
+            this.gameExecutor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (final Exception ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (final RejectedExecutionException ex) {
+            future.complete(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(this.retryAfter)).build());
         }
+        return future;
+    }
 
-        final boolean correct = game.guess(characterString.charAt(0));
-        final Map<String, Object> result = this.wrapGame(game);
-        result.put("correct", correct);
-        return ResponseEntity.ok(result);
+    /**
+     * Finds the game with the given ID.
+     *
+     * @param gameId
+     *            The ID of the game as a token (see {@link GameIds}).
+     * @return The game, if any. Otherwise <code>null</code> (also if the ID is
+     *         not valid).
+     */
+    private Game findGame(final String gameId) {
+        try {
+            return Game.getGame(GameIds.decode(gameId));
+        } catch (final IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the {@link RandomSource} for the given seed.
+     *
+     * @param seed
+     *            The seed, if any.
+     * @return A {@link SeededRandomSource} if a seed is given. Otherwise the
+     *         default {@link RandomSource} of the {@link GameGenerator}.
+     */
+    private RandomSource randomSource(final Long seed) {
+        return seed == null ? GameGenerator.getRandomSource() : new SeededRandomSource(seed);
     }
 
     /**
-     * Wraps the given game into a map.
+     * Serializes the given response using the cached {@link #writer}.
      *
-     * @param game
-     *            The game to wrap.
-     * @return The map with the game inside (property <code>game</code>).
+     * @param status
+     *            The status of the response.
+     * @param response
+     *            The response to serialize.
+     * @return The serialized response wrapped inside a {@link ResponseEntity}
+     *         with the <code>ETag</code> of the game.
+     * @throws JsonProcessingException
+     *             If the serialization fails.
      */
-    private Map<String, Object> wrapGame(final Game game) {
-        final Map<String, Object> result = new HashMap<>();
-        result.put("game", game);
-        return result;
+    private ResponseEntity<?> respond(final HttpStatus status, final GameResponse response)
+            throws JsonProcessingException {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON_UTF8)
+                .eTag(response.getGame().getETag()).body(this.writer.writeValueAsBytes(response));
     }
 }
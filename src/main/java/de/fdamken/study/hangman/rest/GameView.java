@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.rest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIds;
+import lombok.Getter;
+
+/**
+ * An immutable snapshot of the state of a {@link Game} as it is sent to the
+ * client. Contrary to the game itself, this only contains the properties the
+ * client needs and the word is only contained if the game is finished.
+ *
+ */
+@Getter
+@JsonPropertyOrder({ "id", "maskedWord", "mistakeCount", "maxMistakes", "solved", "lost", "version", "word" })
+public class GameView {
+    /**
+     * The ID of the game.
+     *
+     */
+    @JsonSerialize(using = GameIds.Serializer.class)
+    private final long id;
+    /**
+     * The masked word (see {@link Game#getMaskedWord()}).
+     *
+     */
+    private final String maskedWord;
+    /**
+     * The number of mistakes the player has made.
+     *
+     */
+    private final int mistakeCount;
+    /**
+     * The maximum number of mistakes the player is allowed to make.
+     *
+     */
+    private final int maxMistakes;
+    /**
+     * Whether the game is solved.
+     *
+     */
+    private final boolean solved;
+    /**
+     * Whether the game is lost.
+     *
+     */
+    private final boolean lost;
+    /**
+     * The version of the game (see {@link Game#getVersion()}).
+     *
+     */
+    private final long version;
+    /**
+     * The word to guess. This is <code>null</code> unless the game is
+     * finished.
+     *
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String word;
+
+    /**
+     * Constructor of GameView.
+     *
+     * @param game
+     *            The game to take the snapshot of.
+     */
+    public GameView(final Game game) {
+        synchronized (game) {
+            this.id = game.getId();
+            this.maskedWord = game.getMaskedWord();
+            this.mistakeCount = game.getMistakeCount();
+            this.maxMistakes = game.getMaxMistakes();
+            this.solved = game.isSolved();
+            this.lost = game.isLost();
+            this.version = game.getVersion();
+            this.word = this.solved || this.lost ? game.getWord() : null;
+        }
+    }
+
+    /**
+     *
+     * @return The entity tag of this snapshot. As the state of a game only
+     *         changes together with its version, this identifies the
+     *         snapshot.
+     */
+    @JsonIgnore
+    public String getETag() {
+        return "\"" + GameIds.encode(this.id) + '-' + this.version + "\"";
+    }
+}
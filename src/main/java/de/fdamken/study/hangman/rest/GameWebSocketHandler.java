@@ -0,0 +1,398 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.fdamken.study.hangman.cluster.Cluster;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIds;
+import de.fdamken.study.hangman.game.GameListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes the updates of games to WebSocket clients and accepts guesses over
+ * the same connection.
+ *
+ * <p>
+ * The clients send JSON messages with a <code>type</code> and the ID of a
+ * <code>game</code>:
+ * </p>
+ *
+ * <ul>
+ * <li><code>subscribe</code>: Subscribes to the game. The current
+ * <code>state</code> is sent back (same format as the REST API) and all
+ * following changes are pushed.</li>
+ * <li><code>unsubscribe</code>: Cancels the subscription.</li>
+ * <li><code>guess</code>: Guesses the <code>character</code>. This subscribes
+ * to the game, too.</li>
+ * </ul>
+ *
+ * <p>
+ * The changes are pushed as small events to all subscribers:
+ * <code>reveal</code> (the <code>character</code> and its
+ * <code>positions</code>), <code>mistake</code> (the <code>character</code>
+ * and the new <code>mistakeCount</code>), <code>solved</code> and
+ * <code>lost</code> (the <code>word</code>). Every event carries the
+ * <code>version</code> of the game. Invalid messages are answered with an
+ * <code>error</code> event.
+ * </p>
+ *
+ * <p>
+ * The events are created while the game is locked, so they are created in the
+ * order of the versions of the game. They are sent in the background by a
+ * {@link WebSocketSender} afterwards, so a slow client never holds up the
+ * guesses.
+ * </p>
+ *
+ * <p>
+ * Only the games of this node are known. In a {@link Cluster}, the error for a
+ * game that is owned by another node carries the <code>owner</code> (the base
+ * URL of the node). Clients can fall back to the REST API then, which routes
+ * the requests to the owner (see
+ * {@link de.fdamken.study.hangman.cluster.ClusterRoutingInterceptor
+ * ClusterRoutingInterceptor}).
+ * </p>
+ *
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class GameWebSocketHandler extends TextWebSocketHandler implements GameListener {
+    /**
+     * The maximum number of games a single connection can subscribe to.
+     *
+     */
+    public static final int MAX_SUBSCRIPTIONS = 64;
+
+    /**
+     * The type of the received messages.
+     *
+     */
+    private static final TypeReference<Map<String, String>> MESSAGE_TYPE = new TypeReference<Map<String, String>>() {
+        // Nothing to do.
+    };
+
+    /**
+     * The {@link ObjectMapper} that is used for reading and writing the
+     * messages.
+     *
+     */
+    private final ObjectMapper mapper;
+    /**
+     * The {@link WebSocketSender} that sends the messages.
+     *
+     */
+    private final WebSocketSender sender;
+    /**
+     * The {@link Cluster} this node belongs to, if any.
+     *
+     */
+    private final Cluster cluster;
+
+    /**
+     * Contains the subscribed sessions packed by the ID of the game.
+     *
+     */
+    private final Map<Long, Set<WebSocketSession>> subscribers = new ConcurrentHashMap<>();
+    /**
+     * Contains the subscribed game IDs packed by the ID of the session.
+     *
+     */
+    private final Map<String, Set<Long>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#afterConnectionEstablished(org.springframework.web.socket.WebSocketSession)
+     */
+    @Override
+    public void afterConnectionEstablished(final WebSocketSession session) {
+        this.sender.register(session);
+        this.subscriptions.put(session.getId(), ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#afterConnectionClosed(org.springframework.web.socket.WebSocketSession,
+     *      org.springframework.web.socket.CloseStatus)
+     */
+    @Override
+    public void afterConnectionClosed(final WebSocketSession session, final CloseStatus status) {
+        this.sender.unregister(session);
+        final Set<Long> gameIds = this.subscriptions.remove(session.getId());
+        if (gameIds != null) {
+            for (final Long gameId : gameIds) {
+                this.unsubscribe(session, gameId);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#handleTextMessage(org.springframework.web.socket.WebSocketSession,
+     *      org.springframework.web.socket.TextMessage)
+     */
+    @Override
+    protected void handleTextMessage(final WebSocketSession session, final TextMessage message) {
+        if (!this.subscriptions.containsKey(session.getId())) {
+            return;
+        }
+
+        final Map<String, String> request;
+        final long gameId;
+        try {
+            request = this.mapper.readValue(message.getPayload(), GameWebSocketHandler.MESSAGE_TYPE);
+            gameId = GameIds.decode(String.valueOf(request.get("game")));
+        } catch (final IOException | IllegalArgumentException ex) {
+            this.send(session, this.error(null, "Invalid message!"));
+            return;
+        }
+
+        final Game game = Game.getGame(gameId);
+        if (game == null) {
+            final Map<String, Object> error = this.error(gameId, "Unknown game!");
+            final String owner = this.cluster == null ? null : this.cluster.getRemoteOwner(gameId);
+            if (owner != null) {
+                error.put("owner", owner);
+            }
+            this.send(session, error);
+            return;
+        }
+        switch (String.valueOf(request.get("type"))) {
+            case "subscribe":
+                if (this.subscribe(session, gameId)) {
+                    final Map<String, Object> state = this.event("state", game);
+                    state.put("state", new GameView(game));
+                    this.send(session, state);
+                }
+                break;
+            case "unsubscribe":
+                this.subscriptions.get(session.getId()).remove(gameId);
+                this.unsubscribe(session, gameId);
+                break;
+            case "guess":
+                final String character = request.get("character");
+                if (character == null || character.length() != 1) {
+                    this.send(session, this.error(gameId, "Invalid character!"));
+                } else if (this.subscribe(session, gameId)) {
+                    game.guess(character.charAt(0));
+                }
+                break;
+            default:
+                this.send(session, this.error(gameId, "Unknown message type!"));
+                break;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#guessed(de.fdamken.study.hangman.game.Game,
+     *      char, boolean)
+     */
+    @Override
+    public void guessed(final Game game, final char character, final boolean correct) {
+        final Set<WebSocketSession> sessions = this.subscribers.get(game.getId());
+        if (sessions == null) {
+            return;
+        }
+
+        final Map<String, Object> event;
+        if (correct) {
+            final List<Integer> positions = new ArrayList<>();
+            for (int i = game.getWord().indexOf(character); i >= 0; i = game.getWord().indexOf(character, i + 1)) {
+                positions.add(i);
+            }
+            event = this.event("reveal", game);
+            event.put("positions", positions);
+        } else {
+            event = this.event("mistake", game);
+            event.put("mistakeCount", game.getMistakeCount());
+        }
+        event.put("character", String.valueOf(character));
+        this.broadcast(sessions, event);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.fdamken.study.hangman.game.GameListener#gameFinished(de.fdamken.study.hangman.game.Game)
+     */
+    @Override
+    public void gameFinished(final Game game) {
+        final Set<WebSocketSession> sessions = this.subscribers.remove(game.getId());
+        if (sessions == null) {
+            return;
+        }
+
+        final Map<String, Object> event = this.event(game.isSolved() ? "solved" : "lost", game);
+        event.put("word", game.getWord());
+        this.broadcast(sessions, event);
+        for (final WebSocketSession session : sessions) {
+            final Set<Long> gameIds = this.subscriptions.get(session.getId());
+            if (gameIds != null) {
+                gameIds.remove(game.getId());
+            }
+        }
+    }
+
+    /**
+     * Subscribes the given session to the given game.
+     *
+     * @param session
+     *            The session.
+     * @param gameId
+     *            The ID of the game.
+     * @return Whether the session is subscribed now. If the session has too
+     *         many subscriptions, an error is sent.
+     */
+    private boolean subscribe(final WebSocketSession session, final long gameId) {
+        final Set<Long> gameIds = this.subscriptions.get(session.getId());
+        if (!gameIds.contains(gameId) && gameIds.size() >= GameWebSocketHandler.MAX_SUBSCRIPTIONS) {
+            this.send(session, this.error(gameId, "Too many subscriptions!"));
+            return false;
+        }
+        gameIds.add(gameId);
+        this.subscribers.computeIfAbsent(gameId, key -> ConcurrentHashMap.newKeySet()).add(session);
+        return true;
+    }
+
+    /**
+     * Unsubscribes the given session from the given game.
+     *
+     * @param session
+     *            The session.
+     * @param gameId
+     *            The ID of the game.
+     */
+    private void unsubscribe(final WebSocketSession session, final long gameId) {
+        this.subscribers.computeIfPresent(gameId, (key, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    /**
+     * Creates an event of the given type for the given game.
+     *
+     * @param type
+     *            The type of the event.
+     * @param game
+     *            The {@link Game}.
+     * @return The event.
+     */
+    private Map<String, Object> event(final String type, final Game game) {
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("game", GameIds.encode(game.getId()));
+        event.put("version", game.getVersion());
+        return event;
+    }
+
+    /**
+     * Creates an error event.
+     *
+     * @param gameId
+     *            The ID of the game, if any.
+     * @param message
+     *            The error message.
+     * @return The event.
+     */
+    private Map<String, Object> error(final Long gameId, final String message) {
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "error");
+        if (gameId != null) {
+            event.put("game", GameIds.encode(gameId));
+        }
+        event.put("message", message);
+        return event;
+    }
+
+    /**
+     * Sends the given event to all given sessions. The event is serialized only
+     * once.
+     *
+     * @param sessions
+     *            The sessions to send the event to.
+     * @param event
+     *            The event to send.
+     */
+    private void broadcast(final Set<WebSocketSession> sessions, final Map<String, Object> event) {
+        final TextMessage message;
+        try {
+            message = new TextMessage(this.mapper.writeValueAsString(event));
+        } catch (final IOException ex) {
+            GameWebSocketHandler.log.error("Failed to serialize event!", ex);
+            return;
+        }
+        for (final WebSocketSession session : sessions) {
+            this.send(session, message);
+        }
+    }
+
+    /**
+     * Sends the given event to the given session.
+     *
+     * @param session
+     *            The session.
+     * @param event
+     *            The event to send.
+     */
+    private void send(final WebSocketSession session, final Map<String, Object> event) {
+        this.broadcast(Collections.singleton(session), event);
+    }
+
+    /**
+     * Queues the given message for the given session (see
+     * {@link WebSocketSender}).
+     *
+     * @param session
+     *            The session.
+     * @param message
+     *            The message to send.
+     */
+    private void send(final WebSocketSession session, final TextMessage message) {
+        this.sender.send(session, message);
+    }
+}
@@ -0,0 +1,461 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.rest;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.fdamken.study.hangman.cluster.Cluster;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameIds;
+import de.fdamken.study.hangman.game.PartyGame;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lets WebSocket clients play {@link PartyGame parties} together.
+ *
+ * <p>
+ * The clients send JSON messages with a <code>type</code>:
+ * </p>
+ *
+ * <ul>
+ * <li><code>create</code>: Creates a party with a random word of the language
+ * <code>lang</code> (defaults to <code>ENG</code>) and joins it as the given
+ * <code>player</code>.</li>
+ * <li><code>join</code>: Joins the given <code>party</code> as the given
+ * <code>player</code>.</li>
+ * <li><code>guess</code>: Guesses the <code>character</code> in the joined
+ * party.</li>
+ * </ul>
+ *
+ * <p>
+ * Joining is answered with a <code>joined</code> event containing the current
+ * state of the party and the scores of all <code>players</code>. Every applied
+ * guess is sent as a <code>guess</code> event to all sessions that joined the
+ * party (with the <code>player</code> that made it). The events carry the
+ * <code>version</code> of the party, so older events can be ignored. When
+ * the party is finished, the event contains the <code>word</code> and the
+ * scores of all <code>players</code>. Invalid messages and guesses that were
+ * not applied (e.g. because the letter was guessed already) are answered with
+ * an <code>error</code> event.
+ * </p>
+ *
+ * <p>
+ * A player name belongs to the session that joined with it first, other
+ * sessions cannot join the party with the same name. The events are sent in
+ * the background by a {@link WebSocketSender}, so a guessing thread never waits
+ * for slow members.
+ * </p>
+ *
+ * <p>
+ * Parties live on the node that created them, which owns their ID. In a
+ * {@link Cluster}, the error for a party that is owned by another node
+ * carries the <code>owner</code> (the base URL of the node), so the client can
+ * join there.
+ * </p>
+ *
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PartyWebSocketHandler extends TextWebSocketHandler {
+    /**
+     * The maximum length of a player name.
+     *
+     */
+    public static final int MAX_NAME_LENGTH = 32;
+
+    /**
+     * The type of the received messages.
+     *
+     */
+    private static final TypeReference<Map<String, String>> MESSAGE_TYPE = new TypeReference<Map<String, String>>() {
+        // Nothing to do.
+    };
+
+    /**
+     * The {@link ObjectMapper} that is used for reading and writing the
+     * messages.
+     *
+     */
+    private final ObjectMapper mapper;
+    /**
+     * The {@link WebSocketSender} that sends the events.
+     *
+     */
+    private final WebSocketSender sender;
+    /**
+     * The {@link Cluster} this node belongs to, if any.
+     *
+     */
+    private final Cluster cluster;
+
+    /**
+     * Contains the connected sessions packed by their ID.
+     *
+     */
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    /**
+     * Contains the memberships packed by the ID of the session.
+     *
+     */
+    private final Map<String, Membership> memberships = new ConcurrentHashMap<>();
+    /**
+     * Contains the joined sessions packed by the ID of the party.
+     *
+     */
+    private final Map<Long, Set<WebSocketSession>> members = new ConcurrentHashMap<>();
+    /**
+     * The participant that is added to every party that has members. It sends
+     * the applied guesses to all members.
+     *
+     */
+    private final PartyGame.Participant participant = this::broadcast;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#afterConnectionEstablished(org.springframework.web.socket.WebSocketSession)
+     */
+    @Override
+    public void afterConnectionEstablished(final WebSocketSession session) {
+        this.sender.register(session);
+        this.sessions.put(session.getId(), session);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#afterConnectionClosed(org.springframework.web.socket.WebSocketSession,
+     *      org.springframework.web.socket.CloseStatus)
+     */
+    @Override
+    public void afterConnectionClosed(final WebSocketSession session, final CloseStatus status) {
+        this.sender.unregister(session);
+        final WebSocketSession registeredSession = this.sessions.remove(session.getId());
+        final Membership membership = this.memberships.remove(session.getId());
+        if (registeredSession != null && membership != null) {
+            this.leave(registeredSession, membership.party);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.springframework.web.socket.handler.AbstractWebSocketHandler#handleTextMessage(org.springframework.web.socket.WebSocketSession,
+     *      org.springframework.web.socket.TextMessage)
+     */
+    @Override
+    protected void handleTextMessage(final WebSocketSession rawSession, final TextMessage message) {
+        final WebSocketSession session = this.sessions.get(rawSession.getId());
+        if (session == null) {
+            return;
+        }
+
+        final Map<String, String> request;
+        try {
+            request = this.mapper.readValue(message.getPayload(), PartyWebSocketHandler.MESSAGE_TYPE);
+        } catch (final IOException ex) {
+            this.send(session, this.error("Invalid message!"));
+            return;
+        }
+
+        try {
+            switch (String.valueOf(request.get("type"))) {
+                case "create":
+                    // The name is checked first as the party is registered
+                    // as soon as it is created.
+                    final String language = request.get("lang");
+                    if (this.checkName(session, request.get("player"))) {
+                        this.join(session, PartyGame.create(language == null ? Language.ENG : Language.valueOf(language)),
+                                request.get("player"));
+                    }
+                    break;
+                case "join":
+                    final long partyId = GameIds.decode(String.valueOf(request.get("party")));
+                    final PartyGame party = PartyGame.getParty(partyId);
+                    if (party == null) {
+                        final Map<String, Object> error = this.error("Unknown party!");
+                        final String owner = this.cluster == null ? null : this.cluster.getRemoteOwner(partyId);
+                        if (owner != null) {
+                            error.put("owner", owner);
+                        }
+                        this.send(session, error);
+                    } else if (this.checkName(session, request.get("player"))) {
+                        this.join(session, party, request.get("player"));
+                    }
+                    break;
+                case "guess":
+                    final Membership membership = this.memberships.get(session.getId());
+                    final String character = request.get("character");
+                    if (membership == null) {
+                        this.send(session, this.error("Not joined!"));
+                    } else if (character == null || character.length() != 1) {
+                        this.send(session, this.error("Invalid character!"));
+                    } else if (membership.party.guess(membership.player, character.charAt(0)) == null) {
+                        this.send(session, this.error("Guess not applied!"));
+                    }
+                    break;
+                default:
+                    this.send(session, this.error("Unknown message type!"));
+                    break;
+            }
+        } catch (final IllegalArgumentException | IllegalStateException ex) {
+            this.send(session, this.error(ex.getMessage()));
+        } catch (final IOException ex) {
+            PartyWebSocketHandler.log.error("Failed to create party!", ex);
+            this.send(session, this.error("Failed to create party!"));
+        }
+    }
+
+    /**
+     * Checks whether the given player name is valid. If it is not, an error is
+     * sent to the given session.
+     *
+     * @param session
+     *            The session.
+     * @param name
+     *            The name of the player.
+     * @return Whether the name is valid.
+     */
+    private boolean checkName(final WebSocketSession session, final String name) {
+        if (name == null || name.isEmpty() || name.length() > PartyWebSocketHandler.MAX_NAME_LENGTH) {
+            this.send(session, this.error("Invalid player name!"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Lets the given session join the given party. A previously joined party
+     * is left. The player is bound to the session (see
+     * {@link PartyGame#join(String, Object)}).
+     *
+     * @param session
+     *            The session.
+     * @param party
+     *            The party to join.
+     * @param name
+     *            The name of the player. This must have been checked using
+     *            {@link #checkName(WebSocketSession, String)}.
+     */
+    private void join(final WebSocketSession session, final PartyGame party, final String name) {
+        final Membership membership = new Membership(party, party.join(name, session.getId()));
+        final Membership previous = this.memberships.put(session.getId(), membership);
+        if (previous != null && previous.party != party) {
+            this.leave(session, previous.party);
+        }
+        // The session is added inside the computation, otherwise a concurrent
+        // leave of the last member could remove the set (and leave the
+        // party) before the session is added.
+        this.members.compute(party.getId(), (key, sessions) -> {
+            final Set<WebSocketSession> result;
+            if (sessions == null) {
+                party.addParticipant(this.participant);
+                result = ConcurrentHashMap.newKeySet();
+            } else {
+                result = sessions;
+            }
+            result.add(session);
+            return result;
+        });
+
+        final PartyGame.Guess state = party.getCurrentState();
+        final Map<String, Object> event = this.event("joined", state);
+        event.put("player", name);
+        event.put("players", this.players(state));
+        this.send(session, event);
+    }
+
+    /**
+     * Removes the given session from the members of the given party. If it was
+     * the last member, the party is left.
+     *
+     * @param session
+     *            The session.
+     * @param party
+     *            The party to leave.
+     */
+    private void leave(final WebSocketSession session, final PartyGame party) {
+        this.members.computeIfPresent(party.getId(), (key, sessions) -> {
+            sessions.remove(session);
+            if (sessions.isEmpty()) {
+                party.removeParticipant(this.participant);
+                return null;
+            }
+            return sessions;
+        });
+    }
+
+    /**
+     * Sends the given applied guess to all members of the party. The event is
+     * serialized only once.
+     *
+     * @param guess
+     *            The applied guess.
+     */
+    private void broadcast(final PartyGame.Guess guess) {
+        final Set<WebSocketSession> sessions = this.members.get(guess.getParty().getId());
+        if (sessions == null) {
+            return;
+        }
+
+        final Map<String, Object> event = this.event("guess", guess);
+        event.put("player", guess.getPlayer().getName());
+        event.put("character", String.valueOf(guess.getCharacter()));
+        event.put("correct", guess.isCorrect());
+        final TextMessage message;
+        try {
+            message = new TextMessage(this.mapper.writeValueAsString(event));
+        } catch (final IOException ex) {
+            PartyWebSocketHandler.log.error("Failed to serialize event!", ex);
+            return;
+        }
+        for (final WebSocketSession session : sessions) {
+            this.send(session, message);
+        }
+    }
+
+    /**
+     * Creates an event of the given type for the given state of a party. If
+     * the party is finished, the event contains the word and the scores.
+     *
+     * @param type
+     *            The type of the event.
+     * @param state
+     *            The state of the party.
+     * @return The event.
+     */
+    private Map<String, Object> event(final String type, final PartyGame.Guess state) {
+        final PartyGame party = state.getParty();
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("party", GameIds.encode(party.getId()));
+        event.put("version", state.getVersion());
+        event.put("maskedWord", state.getMaskedWord());
+        event.put("mistakeCount", state.getMistakeCount());
+        event.put("maxMistakes", party.getMaxMistakes());
+        event.put("solved", state.isSolved());
+        event.put("lost", state.isLost());
+        if (state.isFinished()) {
+            event.put("word", party.getWord());
+            event.put("players", this.players(state));
+        }
+        return event;
+    }
+
+    /**
+     * Retrieves the scores of all players of the party in the given state.
+     *
+     * @param state
+     *            The state of the party.
+     * @return The scores (<code>name</code>, <code>correct</code> and
+     *         <code>wrong</code>).
+     */
+    private List<Map<String, Object>> players(final PartyGame.Guess state) {
+        return state.getParty().getPlayers().stream().map(player -> {
+            final Map<String, Object> score = new LinkedHashMap<>();
+            score.put("name", player.getName());
+            score.put("correct", state.getCorrectCount(player));
+            score.put("wrong", state.getWrongCount(player));
+            return score;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates an error event.
+     *
+     * @param message
+     *            The error message.
+     * @return The event.
+     */
+    private Map<String, Object> error(final String message) {
+        final Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "error");
+        event.put("message", message);
+        return event;
+    }
+
+    /**
+     * Sends the given event to the given session.
+     *
+     * @param session
+     *            The session.
+     * @param event
+     *            The event to send.
+     */
+    private void send(final WebSocketSession session, final Map<String, Object> event) {
+        try {
+            this.send(session, new TextMessage(this.mapper.writeValueAsString(event)));
+        } catch (final IOException ex) {
+            PartyWebSocketHandler.log.error("Failed to serialize event!", ex);
+        }
+    }
+
+    /**
+     * Queues the given message for the given session (see
+     * {@link WebSocketSender#send(WebSocketSession, TextMessage)}).
+     *
+     * @param session
+     *            The session.
+     * @param message
+     *            The message to send.
+     */
+    private void send(final WebSocketSession session, final TextMessage message) {
+        this.sender.send(session, message);
+    }
+
+    /**
+     * The membership of a session in a party.
+     *
+     */
+    @RequiredArgsConstructor
+    private static class Membership {
+        /**
+         * The joined party.
+         *
+         */
+        private final PartyGame party;
+        /**
+         * The player of the session.
+         *
+         */
+        private final PartyGame.Player player;
+    }
+}
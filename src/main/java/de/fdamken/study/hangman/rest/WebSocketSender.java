@@ -0,0 +1,293 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.rest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends messages to WebSocket sessions in the background, so the sending
+ * thread never waits for the network. This is important as the events of a
+ * game are created while the game is locked (so they are created in the order
+ * of the versions of the game) and as the events of a party are fanned out by
+ * the guessing threads.
+ *
+ * <p>
+ * Every session has its own queue of messages that is sent in order by at most
+ * one thread of a shared executor at a time. If a session falls behind by more
+ * than the queue limit (e.g. because the client does not read), it is closed.
+ * A single blocking write is limited to the send time limit, so a stalled
+ * client only occupies a sender thread for that long.
+ * </p>
+ *
+ */
+@Slf4j
+public class WebSocketSender implements AutoCloseable {
+    /**
+     * The user property of the native session that limits the time of a
+     * blocking send (in milliseconds).
+     *
+     */
+    private static final String SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    /**
+     * The executor that sends the messages.
+     *
+     */
+    private final ExecutorService executor;
+    /**
+     * The maximum number of messages that are queued per session.
+     *
+     */
+    private final int queueLimit;
+    /**
+     * The maximum time a single send may take (in milliseconds).
+     *
+     */
+    private final long sendTimeLimit;
+    /**
+     * Contains the outboxes of the registered sessions packed by the ID of the
+     * session.
+     *
+     */
+    private final Map<String, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor of WebSocketSender.
+     *
+     * @param threads
+     *            The number of threads that send the messages.
+     * @param queueLimit
+     *            The maximum number of messages that are queued per session.
+     * @param sendTimeLimit
+     *            The maximum time a single send may take (in milliseconds).
+     */
+    public WebSocketSender(final int threads, final int queueLimit, final long sendTimeLimit) {
+        if (threads <= 0 || queueLimit <= 0 || sendTimeLimit <= 0) {
+            throw new IllegalArgumentException("Threads, queue limit and send time limit must be positive!");
+        }
+
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "websocket-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queueLimit = queueLimit;
+        this.sendTimeLimit = sendTimeLimit;
+    }
+
+    /**
+     * Registers the given session, so messages can be sent to it.
+     *
+     * @param session
+     *            The session to register.
+     */
+    public void register(final WebSocketSession session) {
+        if (session instanceof NativeWebSocketSession) {
+            final javax.websocket.Session nativeSession = ((NativeWebSocketSession) session)
+                    .getNativeSession(javax.websocket.Session.class);
+            if (nativeSession != null) {
+                nativeSession.getUserProperties().put(WebSocketSender.SEND_TIMEOUT_PROPERTY, this.sendTimeLimit);
+            }
+        }
+        this.outboxes.put(session.getId(), new Outbox(session));
+    }
+
+    /**
+     * Unregisters the given session. Messages that are still queued are
+     * discarded.
+     *
+     * @param session
+     *            The session to unregister.
+     */
+    public void unregister(final WebSocketSession session) {
+        final Outbox outbox = this.outboxes.remove(session.getId());
+        if (outbox != null) {
+            outbox.messages.clear();
+        }
+    }
+
+    /**
+     * Queues the given message for the given session. This never blocks.
+     *
+     * @param session
+     *            The session to send the message to. Nothing is sent if it is
+     *            not registered.
+     * @param message
+     *            The message to send.
+     */
+    public void send(final WebSocketSession session, final TextMessage message) {
+        final Outbox outbox = this.outboxes.get(session.getId());
+        if (outbox == null || outbox.overflown) {
+            return;
+        }
+
+        if (outbox.size.incrementAndGet() > this.queueLimit) {
+            // The session is closed by the sender, as closing writes to the
+            // network, too.
+            outbox.overflown = true;
+        } else {
+            outbox.messages.add(message);
+        }
+        this.schedule(outbox);
+    }
+
+    /**
+     * Stops sending. Messages that are still queued are discarded.
+     *
+     * @see java.lang.AutoCloseable#close()
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+        this.outboxes.clear();
+    }
+
+    /**
+     * Schedules the sending of the messages of the given outbox, unless it is
+     * scheduled already.
+     *
+     * @param outbox
+     *            The outbox.
+     */
+    private void schedule(final Outbox outbox) {
+        if (outbox.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(() -> this.drain(outbox));
+        }
+    }
+
+    /**
+     * Sends all queued messages of the given outbox in order. If the outbox
+     * overflowed, the session is closed instead.
+     *
+     * @param outbox
+     *            The outbox.
+     */
+    private void drain(final Outbox outbox) {
+        try {
+            if (outbox.overflown) {
+                outbox.messages.clear();
+                this.closeSlowSession(outbox.session);
+                return;
+            }
+            TextMessage message;
+            while (!outbox.overflown && (message = outbox.messages.poll()) != null) {
+                outbox.size.decrementAndGet();
+                try {
+                    outbox.session.sendMessage(message);
+                } catch (final IOException | IllegalStateException ex) {
+                    WebSocketSender.log.debug("Failed to send message to WebSocket session " + outbox.session.getId()
+                            + "!", ex);
+                }
+            }
+        } finally {
+            outbox.scheduled.set(false);
+        }
+        // A message may have been queued after the queue was found empty but
+        // before the outbox was marked as not scheduled.
+        if (outbox.overflown || !outbox.messages.isEmpty()) {
+            this.schedule(outbox);
+        }
+    }
+
+    /**
+     * Closes the given session as it does not keep up with the messages.
+     *
+     * @param session
+     *            The session to close.
+     */
+    private void closeSlowSession(final WebSocketSession session) {
+        if (!session.isOpen()) {
+            return;
+        }
+        WebSocketSender.log.debug("Closing WebSocket session {} as it does not keep up with the messages.",
+                session.getId());
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (final IOException ex) {
+            WebSocketSender.log.debug("Failed to close WebSocket session " + session.getId() + "!", ex);
+        }
+    }
+
+    /**
+     * The queued messages of a session.
+     *
+     */
+    private static class Outbox {
+        /**
+         * The session.
+         *
+         */
+        private final WebSocketSession session;
+        /**
+         * The queued messages.
+         *
+         */
+        private final Queue<TextMessage> messages = new ConcurrentLinkedQueue<>();
+        /**
+         * The number of queued messages (the size of a
+         * {@link ConcurrentLinkedQueue} is not known in constant time).
+         *
+         */
+        private final AtomicInteger size = new AtomicInteger();
+        /**
+         * Whether sending is scheduled or running at the moment.
+         *
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /**
+         * Whether more messages than allowed were queued. No further messages
+         * are queued then and the session is closed.
+         *
+         */
+        private volatile boolean overflown;
+
+        /**
+         * Constructor of Outbox.
+         *
+         * @param session
+         *            The session.
+         */
+        private Outbox(final WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
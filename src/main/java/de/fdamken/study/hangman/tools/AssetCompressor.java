@@ -0,0 +1,158 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman.tools;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Precompresses the static assets of the web client. This is executed during
+ * the build and writes a gzipped variant (<code>*.gz</code>) next to every
+ * compressible asset, which is then delivered by the
+ * <code>GzipResourceResolver</code> to clients that accept it (see
+ * <code>WebConfiguration</code>).
+ *
+ * <p>
+ * Assets are compressed with the best compression level. A gzipped variant is
+ * only kept if it is smaller than the original.
+ * </p>
+ *
+ * <p>
+ * The classes in this package are only used during the build and are not
+ * packaged into the jars.
+ * </p>
+ *
+ */
+public class AssetCompressor {
+    /**
+     * The extension of the gzipped variants.
+     *
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+    /**
+     * The extensions of the assets that are worth compressing. Images and
+     * WOFF fonts are compressed already. Stylesheets are not precompressed as
+     * the links inside them are rewritten at runtime (they are compressed by
+     * the server instead).
+     *
+     */
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = new HashSet<>(
+            Arrays.asList(".js", ".svg", ".ttf", ".eot", ".json", ".xml", ".ico", ".html"));
+
+    /**
+     * The main method.
+     *
+     * @param args
+     *            The CLI arguments. These are the directories to compress all
+     *            assets in (recursively).
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static void main(final String[] args) throws IOException {
+        for (final String arg : args) {
+            final Path directory = Paths.get(arg);
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+
+            final List<Path> assets;
+            try (Stream<Path> files = Files.walk(directory)) {
+                assets = files.filter(Files::isRegularFile).filter(AssetCompressor::isCompressible)
+                        .collect(Collectors.toList());
+            }
+            long originalSize = 0;
+            long compressedSize = 0;
+            for (final Path asset : assets) {
+                originalSize += Files.size(asset);
+                compressedSize += AssetCompressor.compress(asset);
+            }
+            System.out.println("Compressed " + assets.size() + " assets in " + directory + " from " + originalSize
+                    + " to " + compressedSize + " bytes.");
+        }
+    }
+
+    /**
+     * Compresses the given asset into a gzipped variant next to it.
+     *
+     * @param source
+     *            The asset to compress.
+     * @return The size of the gzipped variant. If it is not smaller than the
+     *         asset, it is deleted and the size of the asset is returned.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    public static long compress(final Path source) throws IOException {
+        final Path target = source.resolveSibling(source.getFileName() + AssetCompressor.GZIP_EXTENSION);
+
+        final Path temp = Files.createTempFile(target.getParent(), source.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp)) {
+                {
+                    this.def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                Files.copy(source, out);
+            }
+
+            final long size = Files.size(source);
+            final long compressedSize = Files.size(temp);
+            if (compressedSize >= size) {
+                Files.deleteIfExists(target);
+                return size;
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return compressedSize;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Checks whether the given asset is worth compressing.
+     *
+     * @param asset
+     *            The asset to check.
+     * @return Whether the extension of the asset is one of the
+     *         {@link #COMPRESSIBLE_EXTENSIONS}.
+     */
+    private static boolean isCompressible(final Path asset) {
+        final String name = asset.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        return dot >= 0 && AssetCompressor.COMPRESSIBLE_EXTENSIONS.contains(name.substring(dot));
+    }
+}
@@ -63,8 +63,7 @@ var ger = {
 var hangman = angular.module('hangman', [ ]);
 
 hangman.controller('hangmanController', ['$scope', '$http', '$window', function ($scope, $http, $window) {
-	$scope.MAX_MISTAKES = 11;
-	$scope.language = ($window.navigator.language || $window.navigator.userLanguage).substring(0, 2) === 'de' ? 'GER' : 'ENG';
+	$scope.language = $window.document.documentElement.lang === 'de' ? 'GER' : 'ENG';
 
 	var ajaxError = function () {
 		BootstrapDialog.show({
@@ -88,25 +87,137 @@ hangman.controller('hangmanController', ['$scope', '$http', '$window', function
 	var copyRelevantGameData = function (game) {
 		$scope.game.maskedWord = game.maskedWord;
 		$scope.game.mistakeCount = game.mistakeCount;
+		$scope.game.maxMistakes = game.maxMistakes;
 		$scope.game.solved = game.solved;
+		$scope.game.loosed = game.lost;
+		$scope.game.word = game.word;
+	};
+
+	var findLetter = function (character) {
+		return $scope.letters.filter(function (letter) {
+			return letter.displayName === character;
+		})[0] || { };
+	};
+
+	var handleEvent = function (event) {
+		if (!$scope.game || event.game !== $scope.game.id) {
+			return;
+		}
+
+		switch (event.type) {
+		case 'state':
+			copyRelevantGameData(event.state);
+			break;
+		case 'reveal':
+			answered(event.character);
+			var maskedWord = $scope.game.maskedWord.split(' ');
+			event.positions.forEach(function (position) {
+				maskedWord[position] = event.character;
+			});
+			$scope.game.maskedWord = maskedWord.join(' ');
+			findLetter(event.character).correct = true;
+			break;
+		case 'mistake':
+			answered(event.character);
+			$scope.game.mistakeCount = event.mistakeCount;
+			findLetter(event.character).correct = false;
+			break;
+		case 'solved':
+			$scope.game.maskedWord = event.word.split('').join(' ');
+			$scope.game.word = event.word;
+			$scope.game.solved = true;
+			break;
+		case 'lost':
+			$scope.game.word = event.word;
+			$scope.game.loosed = true;
+			break;
+		case 'error':
+			if (event.message === 'Unknown game!') {
+				// The game is not known to the node the WebSocket is connected
+				// to (e.g. as it is owned by another node of a cluster). The
+				// REST API routes the requests to the owner.
+				$scope.game.rest = true;
+				pendingGuesses.splice(0).forEach(guessRest);
+				break;
+			}
+			ajaxError();
+			break;
+		}
+	};
+
+	// The letters that were guessed over the WebSocket and that were not
+	// answered yet. They are repeated using the REST API if the WebSocket
+	// cannot be used for the game.
+	var pendingGuesses = [];
+	var answered = function (character) {
+		var index = pendingGuesses.indexOf(findLetter(character));
+		if (index >= 0) {
+			pendingGuesses.splice(index, 1);
+		}
+	};
+
+	// Guesses are sent and updates are received over a WebSocket. If it is
+	// not available, the REST API is used instead.
+	var socket = null;
+	var send = function (message) {
+		if (socket === null || socket.readyState !== $window.WebSocket.OPEN) {
+			return false;
+		}
+		socket.send(angular.toJson(message));
+		return true;
+	};
+	var connect = function () {
+		if (!$window.WebSocket || socket !== null) {
+			return;
+		}
+		socket = new $window.WebSocket(($window.location.protocol === 'https:' ? 'wss://' : 'ws://') + $window.location.host + '/ws/games');
+		socket.onopen = function () {
+			if ($scope.game && !$scope.game.rest) {
+				send({ type: 'subscribe', game: $scope.game.id });
+			}
+		};
+		socket.onmessage = function (message) {
+			$scope.$apply(function () {
+				handleEvent(angular.fromJson(message.data));
+			});
+		};
+		socket.onclose = function () {
+			socket = null;
+		};
+	};
+	var startGame = function (game) {
+		$scope.game = game;
+		$scope.game.loosed = game.lost;
+
+		resetLetters();
+		pendingGuesses = [];
+		connect();
+		send({ type: 'subscribe', game: game.id });
 	};
 
 	$scope.generateGame = function () {
 		$http.get('/api/games?lang=' + encodeURIComponent($scope.language)).then(function (response) {
-			$scope.game = response.data.game;
-
-			resetLetters();
+			startGame(response.data.game);
 		}, ajaxError);
 	};
 	$scope.createGame = function () {
-		$http.put('/api/games/' + encodeURIComponent($scope.customWord)).then(function (response) {
-			$scope.game = response.data.game;
-
-			resetLetters();
+		$http.put('/api/games/' + encodeURIComponent($scope.customWord) + '?lang='
+				+ encodeURIComponent($scope.language)).then(function (response) {
+			startGame(response.data.game);
 		}, ajaxError);
 	}
 
 	$scope.guess = function(letter) {
+		if (!$scope.game.rest) {
+			if (send({ type: 'guess', game: $scope.game.id, character: letter.name })) {
+				pendingGuesses.push(letter);
+				return;
+			}
+			connect();
+		}
+		guessRest(letter);
+	};
+	var guessRest = function (letter) {
 		$http.post('/api/games/' + encodeURIComponent($scope.game.id), {
 			character: letter.name
 		}).then(function (response) {
@@ -116,12 +227,6 @@ hangman.controller('hangmanController', ['$scope', '$http', '$window', function
 		}, ajaxError);
 	};
 
-	$scope.$watch('game.mistakeCount', function () {
-		if (($scope.game || { }).mistakeCount >= $scope.MAX_MISTAKES) {
-			$scope.game.loosed = true;
-		}
-	});
-
 	$scope.$watch('language', function () {
 		if ($scope.language === 'GER') {
 			$scope.i18n = ger;
@@ -23,31 +23,32 @@
  THE SOFTWARE.
  #L%
 -->
+<#-- All assets are referenced using assets.url, so they are delivered with a content hash in their URL. -->
 <#macro head>
 	<meta encoding="UTF-8">
 
-	<link rel="apple-touch-icon" sizes="180x180" href="/apple-touch-icon.png">
-	<link rel="icon" type="image/png" href="/favicon-32x32.png" sizes="32x32">
-	<link rel="icon" type="image/png" href="/android-chrome-192x192.png" sizes="192x192">
-	<link rel="icon" type="image/png" href="/favicon-16x16.png" sizes="16x16">
-	<link rel="manifest" href="/manifest.json">
-	<link rel="mask-icon" href="/safari-pinned-tab.svg" color="#00aba9">
+	<link rel="apple-touch-icon" sizes="180x180" href="${assets.url('/apple-touch-icon.png')}">
+	<link rel="icon" type="image/png" href="${assets.url('/favicon-32x32.png')}" sizes="32x32">
+	<link rel="icon" type="image/png" href="${assets.url('/android-chrome-192x192.png')}" sizes="192x192">
+	<link rel="icon" type="image/png" href="${assets.url('/favicon-16x16.png')}" sizes="16x16">
+	<link rel="manifest" href="${assets.url('/manifest.json')}">
+	<link rel="mask-icon" href="${assets.url('/safari-pinned-tab.svg')}" color="#00aba9">
 	<meta name="msapplication-TileColor" content="#00aba9">
-	<meta name="msapplication-TileImage" content="/mstile-144x144.png">
+	<meta name="msapplication-TileImage" content="${assets.url('/mstile-144x144.png')}">
 	<meta name="theme-color" content="#00aba9">
 
-	<link rel="stylesheet" href="/css/bootstrap.min.css">
-	<link rel="stylesheet" href="/css/bootstrap-dialog.min.css">
+	<link rel="stylesheet" href="${assets.url('/css/bootstrap.min.css')}">
+	<link rel="stylesheet" href="${assets.url('/css/bootstrap-dialog.min.css')}">
 
-	<script src="/js/jquery.min.js"></script>
-	<script src="/js/bootstrap.min.js"></script>
-	<script src="/js/bootstrap-dialog.min.js"></script>
-	<script src="/js/angular.min.js"></script>
+	<script src="${assets.url('/js/jquery.min.js')}"></script>
+	<script src="${assets.url('/js/bootstrap.min.js')}"></script>
+	<script src="${assets.url('/js/bootstrap-dialog.min.js')}"></script>
+	<script src="${assets.url('/js/angular.min.js')}"></script>
 
 
-	<link rel="stylesheet" href="/css/hangman.css">
+	<link rel="stylesheet" href="${assets.url('/css/hangman.css')}">
 
-	<script src="/js/hangman.js"></script>
+	<script src="${assets.url('/js/hangman.js')}"></script>
 </#macro>
 
 <#macro body>
@@ -26,7 +26,7 @@
 <#import "hangman.ftl" as hangman>
 
 <!DOCTYPE html>
-<html>
+<html lang="${locale}">
 <head>
 	<@hangman.head />
 
@@ -41,8 +41,8 @@
 				<h3 class="heading inline">{{ i18n.hangman }}</h3>
 				<form id="language-select" class="form-inline inline pull-right">
 					<select class="form-control" ng-model="language">
-						<option value="ENG" selected>English</option>
-						<option value="GER">Deutsch</option>
+						<option value="ENG"<#if language == "ENG"> selected</#if>>English</option>
+						<option value="GER"<#if language == "GER"> selected</#if>>Deutsch</option>
 					</select>
 				</form>
 			</div>
@@ -67,7 +67,7 @@
 					<center class="guess">
 						<div class="data">
 							<div class="word monospace">{{ (game.solved || game.loosed) ? game.word : game.maskedWord }}</div>
-							<div class="mistakes">{{ game.mistakeCount }} {{ i18n.of }} {{ MAX_MISTAKES }} {{ i18n.allowedMistakes }}</div>
+							<div class="mistakes">{{ game.mistakeCount }} {{ i18n.of }} {{ game.maxMistakes }} {{ i18n.allowedMistakes }}</div>
 						</div>
 
 						<div class="keyboard" ng-show="!game.solved &amp;&amp; !game.loosed">
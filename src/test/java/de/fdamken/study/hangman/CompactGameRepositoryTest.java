@@ -0,0 +1,268 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.CompactGameRepository;
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameListener;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.SolverIndex;
+
+/**
+ * Tests {@link CompactGameRepository}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class CompactGameRepositoryTest {
+    private final CompactGameRepository repository = new CompactGameRepository(3, TimeUnit.HOURS.toMillis(1),
+            TimeUnit.HOURS.toMillis(1));
+
+    private GameRepository previousRepository;
+
+    @Before
+    public void setUp() {
+        this.previousRepository = Game.getRepository();
+        Game.setRepository(this.repository);
+    }
+
+    @After
+    public void tearDown() {
+        Game.setRepository(this.previousRepository);
+        this.repository.close();
+    }
+
+    @Test
+    public void testSaveAndFind() {
+        final Game game = new Game("Hello", 5);
+
+        final Game view = this.repository.find(game.getId());
+
+        Assert.assertNotSame(game, view);
+        Assert.assertEquals(game.getId(), view.getId());
+        Assert.assertEquals("HELLO", view.getWord());
+        Assert.assertEquals(5, view.getMaxMistakes());
+        Assert.assertEquals(1, this.repository.size());
+    }
+
+    @Test
+    public void testGuessIsWrittenBack() {
+        final Game game = new Game("Hello");
+
+        Game.getGame(game.getId()).guess('l');
+        Game.getGame(game.getId()).guess('x');
+
+        final Game view = Game.getGame(game.getId());
+        Assert.assertEquals("_ _ L L _", view.getMaskedWord());
+        Assert.assertEquals(1, view.getMistakeCount());
+        Assert.assertEquals(2, view.getVersion());
+    }
+
+    @Test
+    public void testLanguageAndWrongLettersAreKept() throws IOException {
+        final Game game = new Game(Language.GER, "Hallo", 5);
+
+        Game.getGame(game.getId()).guess('l');
+        Game.getGame(game.getId()).guess('e');
+
+        final Game view = Game.getGame(game.getId());
+        Assert.assertEquals(Language.GER, view.getLanguage());
+        final SolverIndex.Hint hint = Dictionary
+                .read(new ByteArrayInputStream("hallo\nhello\nhills\n".getBytes(StandardCharsets.US_ASCII)))
+                .getSolverIndex().hint(view, 0);
+        Assert.assertEquals(2, hint.getCandidates());
+    }
+
+    @Test
+    public void testStaleViewIsRefreshed() {
+        final Game game = new Game("Hello");
+        final Game first = Game.getGame(game.getId());
+        final Game second = Game.getGame(game.getId());
+
+        first.guess('l');
+        first.guess('e');
+        second.guess('x');
+
+        final Game view = Game.getGame(game.getId());
+        Assert.assertEquals("_ E L L _", view.getMaskedWord());
+        Assert.assertEquals("_ E L L _", second.getMaskedWord());
+        Assert.assertEquals(1, view.getMistakeCount());
+        Assert.assertEquals(3, view.getVersion());
+    }
+
+    @Test
+    public void testConcurrentGuessesAreNotLost() throws InterruptedException {
+        final String letters = "ABCDFGIJKMNPQRSTUVWXYZ";
+        final Game game = new Game("Hello", letters.length() + 1);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (final char letter : letters.toCharArray()) {
+            final Thread thread = new Thread(() -> {
+                final Game view = Game.getGame(game.getId());
+                try {
+                    start.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                view.guess(letter);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Game view = Game.getGame(game.getId());
+        Assert.assertEquals(letters.length(), view.getMistakeCount());
+        Assert.assertEquals(letters.length(), view.getVersion());
+    }
+
+    @Test
+    public void testRecentlyUsedGamesAreKept() {
+        final Game first = new Game("Hello");
+        final Game second = new Game("Hello");
+        final Game third = new Game("Hello");
+        new Game("Hello");
+        this.repository.find(second.getId());
+
+        new Game("Hello");
+
+        Assert.assertNull(this.repository.find(first.getId()));
+        Assert.assertNotNull(this.repository.find(second.getId()));
+        Assert.assertNull(this.repository.find(third.getId()));
+        Assert.assertEquals(2, this.repository.getCapacityEvictionCount());
+    }
+
+    @Test
+    public void testFinishedGameIsRemoved() {
+        final Game game = new Game("Hi");
+
+        Game.getGame(game.getId()).guess('h');
+        Game.getGame(game.getId()).guess('i');
+
+        Assert.assertNull(Game.getGame(game.getId()));
+        Assert.assertEquals(0, this.repository.size());
+    }
+
+    @Test
+    public void testDictionaryWord() throws IOException {
+        final Game game = GameGenerator.generate(Language.GER);
+
+        Assert.assertEquals(game.getWord(), this.repository.find(game.getId()).getWord());
+    }
+
+    @Test
+    public void testSlotsAreReused() {
+        for (int i = 0; i < 100; i++) {
+            final Game game = new Game("Hello");
+            this.repository.remove(game.getId());
+        }
+        final List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            games.add(new Game("Hello"));
+        }
+
+        Assert.assertEquals(3, this.repository.size());
+        Assert.assertEquals(0, this.repository.getEvictionCount());
+        for (final Game game : games) {
+            Assert.assertNotNull(this.repository.find(game.getId()));
+        }
+    }
+
+    @Test
+    public void testCapacityIsEnforced() {
+        final List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            games.add(new Game("Hello"));
+        }
+
+        Assert.assertEquals(3, this.repository.size());
+        Assert.assertEquals(7, this.repository.getCapacityEvictionCount());
+        Assert.assertNotNull(this.repository.find(games.get(9).getId()));
+        Assert.assertEquals(3, this.repository.findAll().size());
+    }
+
+    @Test
+    public void testListenerMustNotAccessTheRepository() {
+        final Game game = new Game("Hello");
+        final GameListener listener = new GameListener() {
+            @Override
+            public void guessed(final Game guessed, final char character, final boolean correct) {
+                CompactGameRepositoryTest.this.repository.remove(guessed.getId());
+            }
+        };
+        Game.addListener(listener);
+        try {
+            Game.getGame(game.getId()).guess('h');
+            Assert.fail();
+        } catch (final IllegalStateException ex) {
+            // Expected, instead of a deadlock.
+        } finally {
+            Game.removeListener(listener);
+        }
+
+        Assert.assertNotNull(this.repository.find(game.getId()));
+        Game.getGame(game.getId()).guess('e');
+        Assert.assertEquals("_ E _ _ _", this.repository.find(game.getId()).getMaskedWord());
+    }
+
+    @Test
+    public void testManyGames() {
+        try (final CompactGameRepository large = new CompactGameRepository(10_000, TimeUnit.HOURS.toMillis(1),
+                TimeUnit.HOURS.toMillis(1))) {
+            Game.setRepository(large);
+            final List<Game> games = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                games.add(new Game("Hello"));
+            }
+            for (int i = 0; i < games.size(); i += 3) {
+                large.remove(games.get(i).getId());
+            }
+
+            for (int i = 0; i < games.size(); i++) {
+                Assert.assertEquals(i % 3 != 0, large.find(games.get(i).getId()) != null);
+            }
+            Assert.assertEquals(6_666, large.size());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.Dictionaries;
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+
+/**
+ * Tests {@link Dictionary}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class DictionaryTest {
+    @Test
+    public void testRead() throws IOException {
+        final Dictionary dictionary = this.read("Hello\nworld\n");
+
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals("Hello", dictionary.getWord(0));
+        Assert.assertEquals("world", dictionary.getWord(1));
+        Assert.assertEquals(5, dictionary.getLength(1));
+    }
+
+    @Test
+    public void testReadWithoutTrailingNewline() throws IOException {
+        final Dictionary dictionary = this.read("Hello\nworld");
+
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals("world", dictionary.getWord(1));
+    }
+
+    @Test
+    public void testReadWindowsLineEndings() throws IOException {
+        final Dictionary dictionary = this.read("Hello\r\nworld\r\n");
+
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals("Hello", dictionary.getWord(0));
+        Assert.assertEquals("world", dictionary.getWord(1));
+    }
+
+    @Test
+    public void testReadSkipsInvalidLines() throws IOException {
+        final Dictionary dictionary = this.read("Hello\n\nit's\nfoo bar\nworld\n");
+
+        Assert.assertEquals(2, dictionary.size());
+        Assert.assertEquals("Hello", dictionary.getWord(0));
+        Assert.assertEquals("world", dictionary.getWord(1));
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        Assert.assertEquals(0, this.read("").size());
+    }
+
+    @Test
+    public void testWriteAndMap() throws IOException {
+        final Dictionary dictionary = this.read("Hello\nworld\n");
+
+        final Path file = Files.createTempFile("hangman-test-", Dictionary.BINARY_EXTENSION);
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                dictionary.write(out);
+            }
+            final Dictionary mapped = Dictionary.map(file);
+
+            Assert.assertEquals(2, mapped.size());
+            Assert.assertEquals("Hello", mapped.getWord(0));
+            Assert.assertEquals("world", mapped.getWord(1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMapInvalid() throws IOException {
+        final Path file = Files.createTempFile("hangman-test-", Dictionary.BINARY_EXTENSION);
+        try {
+            Files.write(file, "Hello\nworld\n".getBytes(StandardCharsets.US_ASCII));
+
+            Dictionary.map(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDictionaryIsShared() throws IOException {
+        for (final Language language : Language.values()) {
+            final Dictionary dictionary = Dictionaries.get(language);
+
+            Assert.assertTrue(dictionary.size() > 0);
+            Assert.assertSame(dictionary, Dictionaries.get(language));
+        }
+    }
+
+    /**
+     * Reads a dictionary from the given string.
+     *
+     * @param content
+     *            The content of the dictionary.
+     * @return The read dictionary.
+     * @throws IOException
+     *             If any I/O error occurs.
+     */
+    private Dictionary read(final String content) throws IOException {
+        return Dictionary.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
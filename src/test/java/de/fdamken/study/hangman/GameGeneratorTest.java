@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.SeededRandomSource;
+import de.fdamken.study.hangman.game.WordConstraints;
+
+/**
+ * Tests {@link GameGenerator}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class GameGeneratorTest {
+    @Test
+    public void testGenerate() throws IOException {
+        for (final Language language : Language.values()) {
+            Assert.assertNotNull(GameGenerator.generate(language));
+        }
+    }
+
+    @Test
+    public void testSeededIsReproducible() throws IOException {
+        final SeededRandomSource first = new SeededRandomSource(42);
+        final SeededRandomSource second = new SeededRandomSource(42);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(GameGenerator.generate(Language.ENG, new WordConstraints(), first).getWord(),
+                    GameGenerator.generate(Language.ENG, new WordConstraints(), second).getWord());
+        }
+    }
+
+    @Test
+    public void testConstrained() throws IOException {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMinLength(6);
+        constraints.setMaxLength(9);
+        constraints.setMaxDistinctLetters(5);
+        for (int i = 0; i < 100; i++) {
+            final String word = GameGenerator.generate(Language.ENG, constraints).getWord();
+
+            Assert.assertTrue(word.length() >= 6 && word.length() <= 9);
+            Assert.assertTrue(word.chars().distinct().count() <= 5);
+        }
+    }
+
+    @Test
+    public void testNoMatch() throws IOException {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMinLength(1000);
+
+        Assert.assertNull(GameGenerator.generate(Language.ENG, constraints));
+    }
+}
@@ -0,0 +1,124 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIdGenerator;
+import de.fdamken.study.hangman.game.GameIds;
+import de.fdamken.study.hangman.game.KeyedGameIdGenerator;
+import de.fdamken.study.hangman.game.TimeBasedGameIdGenerator;
+
+/**
+ * Tests {@link GameIds} and the {@link GameIdGenerator game ID generators}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class GameIdsTest {
+    @Test
+    public void testEncodeAndDecode() {
+        for (final long id : new long[] { 0, 1, 61, 62, Long.MAX_VALUE, Long.MIN_VALUE, -1 }) {
+            final String token = GameIds.encode(id);
+
+            Assert.assertTrue(token.length() <= GameIds.MAX_TOKEN_LENGTH);
+            Assert.assertEquals(id, GameIds.decode(token));
+        }
+        Assert.assertEquals("0", GameIds.encode(0));
+        Assert.assertEquals("z", GameIds.encode(61));
+        Assert.assertEquals("10", GameIds.encode(62));
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        for (final String token : new String[] { "", "abc-def", "zzzzzzzzzzz", "000000000000" }) {
+            try {
+                GameIds.decode(token);
+                Assert.fail(token);
+            } catch (final IllegalArgumentException ex) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void testTimeBasedIdsAreUnique() {
+        final GameIdGenerator generator = new TimeBasedGameIdGenerator(42);
+        final Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            Assert.assertTrue(ids.add(generator.nextId()));
+        }
+    }
+
+    @Test
+    public void testTimeBasedIdsContainNode() {
+        final long id = new TimeBasedGameIdGenerator(42).nextId();
+
+        Assert.assertEquals(42, id >>> 12 & TimeBasedGameIdGenerator.MAX_NODE);
+        Assert.assertTrue(id > 0);
+    }
+
+    @Test
+    public void testKeyedIdsAreUniqueAndScattered() {
+        final GameIdGenerator generator = new KeyedGameIdGenerator(new TimeBasedGameIdGenerator(0), 0x1234L);
+        final Set<Long> ids = new HashSet<>();
+        long previous = generator.nextId();
+        int distance = Integer.MAX_VALUE;
+        for (int i = 0; i < 100_000; i++) {
+            final long id = generator.nextId();
+            Assert.assertTrue(ids.add(id));
+            distance = Math.min(distance, Long.bitCount(id ^ previous));
+            previous = id;
+        }
+
+        Assert.assertTrue(distance > 4);
+    }
+
+    @Test
+    public void testKeyedIdsDependOnKey() {
+        final GameIdGenerator first = new KeyedGameIdGenerator(() -> 7, 1);
+        final GameIdGenerator second = new KeyedGameIdGenerator(() -> 7, 2);
+
+        Assert.assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    public void testSerializedAsToken() throws Exception {
+        final Game game = new Game("Hello");
+
+        final JsonNode json = new ObjectMapper().valueToTree(game);
+
+        Assert.assertEquals(GameIds.encode(game.getId()), json.get("id").asText());
+        Assert.assertSame(game, Game.getGame(GameIds.decode(json.get("id").asText())));
+    }
+}
@@ -0,0 +1,212 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameJournal;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.InMemoryGameRepository;
+import de.fdamken.study.hangman.game.SolverIndex;
+
+/**
+ * Tests {@link GameJournal}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class GameJournalTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private GameRepository previousRepository;
+
+    @Before
+    public void setUp() {
+        this.previousRepository = Game.getRepository();
+    }
+
+    @After
+    public void tearDown() {
+        Game.setRepository(this.previousRepository);
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        final Game game;
+        try (final GameJournal journal = this.open(directory, TimeUnit.HOURS.toMillis(1))) {
+            game = new Game("Hello", 5);
+            game.guess('h');
+            game.guess('x');
+            game.guess('h');
+            new Game("Hi").guess('q');
+        }
+
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        try (final GameJournal journal = new GameJournal(directory, repository, false, TimeUnit.HOURS.toMillis(1))) {
+            Assert.assertEquals(2, journal.replay());
+        } finally {
+            repository.close();
+        }
+
+        final Game restored = repository.find(game.getId());
+        Assert.assertNotNull(restored);
+        Assert.assertEquals(game.getMaskedWord(), restored.getMaskedWord());
+        Assert.assertEquals(1, restored.getMistakeCount());
+        Assert.assertEquals(5, restored.getMaxMistakes());
+        Assert.assertEquals(game.getVersion(), restored.getVersion());
+    }
+
+    @Test
+    public void testFinishedGamesAreNotRestored() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        try (final GameJournal journal = this.open(directory, TimeUnit.HOURS.toMillis(1))) {
+            final Game solved = new Game("Hi");
+            solved.guess('h');
+            solved.guess('i');
+            final Game lost = new Game("Hi", 1);
+            lost.guess('x');
+        }
+
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        try (final GameJournal journal = new GameJournal(directory, repository, false, TimeUnit.HOURS.toMillis(1))) {
+            Assert.assertEquals(0, journal.replay());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        final Path directory = this.folder.getRoot().toPath();
+        final Game game;
+        try (final GameJournal journal = this.open(directory, TimeUnit.HOURS.toMillis(1))) {
+            game = new Game("Hello");
+            game.guess('l');
+        }
+        final Path journalFile = directory.resolve(GameJournal.JOURNAL_FILE);
+        final long size = Files.size(journalFile);
+        Files.write(journalFile, new byte[] { 0, 0, 0, 42, 2, 7 }, StandardOpenOption.APPEND);
+
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        try (final GameJournal journal = new GameJournal(directory, repository, false, TimeUnit.HOURS.toMillis(1))) {
+            Assert.assertEquals(1, journal.replay());
+        } finally {
+            repository.close();
+        }
+
+        Assert.assertEquals(size, Files.size(journalFile));
+        Assert.assertEquals(game.getMaskedWord(), repository.find(game.getId()).getMaskedWord());
+    }
+
+    @Test
+    public void testCompaction() throws IOException, InterruptedException {
+        final Path directory = this.folder.getRoot().toPath();
+        final Game game;
+        try (final GameJournal journal = this.open(directory, 50)) {
+            game = new Game("Hello");
+            game.guess('e');
+            Thread.sleep(500);
+            game.guess('o');
+        }
+
+        Assert.assertTrue(Files.exists(directory.resolve(GameJournal.SNAPSHOT_FILE)));
+
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        try (final GameJournal journal = new GameJournal(directory, repository, false, TimeUnit.HOURS.toMillis(1))) {
+            Assert.assertEquals(1, journal.replay());
+        } finally {
+            repository.close();
+        }
+
+        Assert.assertEquals(game.getMaskedWord(), repository.find(game.getId()).getMaskedWord());
+        Assert.assertEquals(game.getVersion(), repository.find(game.getId()).getVersion());
+    }
+
+    @Test
+    public void testLanguageIsRestored() throws IOException, InterruptedException {
+        final Path directory = this.folder.getRoot().toPath();
+        final Game snapshotted;
+        final Game snapshottedCustom;
+        final Game journaled;
+        final Game custom;
+        try (final GameJournal journal = this.open(directory, 50)) {
+            snapshotted = GameGenerator.generate(Language.GER);
+            snapshottedCustom = new Game(Language.GER, "Hallo", 5);
+            snapshottedCustom.guess('l');
+            snapshottedCustom.guess('e');
+            Thread.sleep(500);
+            journaled = GameGenerator.generate(Language.ENG);
+            custom = new Game("Hello");
+        }
+
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        try (final GameJournal journal = new GameJournal(directory, repository, false, TimeUnit.HOURS.toMillis(1))) {
+            Assert.assertEquals(4, journal.replay());
+        } finally {
+            repository.close();
+        }
+
+        Assert.assertEquals(Language.GER, repository.find(snapshotted.getId()).getLanguage());
+        Assert.assertEquals(snapshotted.getWord(), repository.find(snapshotted.getId()).getWord());
+        Assert.assertEquals(Language.ENG, repository.find(journaled.getId()).getLanguage());
+        Assert.assertNull(repository.find(custom.getId()).getLanguage());
+
+        final Game restoredCustom = repository.find(snapshottedCustom.getId());
+        Assert.assertEquals(Language.GER, restoredCustom.getLanguage());
+        Assert.assertEquals(1, restoredCustom.getMistakeCount());
+        final SolverIndex.Hint hint = Dictionary
+                .read(new ByteArrayInputStream("hallo\nhello\nhills\n".getBytes(StandardCharsets.US_ASCII)))
+                .getSolverIndex().hint(restoredCustom, 0);
+        Assert.assertEquals(2, hint.getCandidates());
+    }
+
+    private GameJournal open(final Path directory, final long compactionInterval) throws IOException {
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        Game.setRepository(repository);
+        final GameJournal journal = new GameJournal(directory, repository, false, compactionInterval);
+        journal.replay();
+        journal.start();
+        return journal;
+    }
+}
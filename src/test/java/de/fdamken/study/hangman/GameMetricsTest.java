@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.GameStatistics;
+import de.fdamken.study.hangman.game.InMemoryGameRepository;
+import de.fdamken.study.hangman.metrics.GameMetrics;
+import de.fdamken.study.hangman.metrics.LatencyHistogram;
+
+/**
+ * Tests {@link GameStatistics}, {@link GameMetrics} and
+ * {@link LatencyHistogram}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class GameMetricsTest {
+    private final GameStatistics statistics = new GameStatistics();
+
+    @Before
+    public void setUp() {
+        Game.addListener(this.statistics);
+    }
+
+    @After
+    public void tearDown() {
+        Game.removeListener(this.statistics);
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        GameGenerator.generate(Language.GER);
+        final Game solved = new Game("Hi");
+        solved.guess('h');
+        solved.guess('x');
+        solved.guess('i');
+        final Game lost = new Game("Hi", 1);
+        lost.guess('x');
+
+        Assert.assertEquals(1, this.statistics.getCreatedCount(Language.GER));
+        Assert.assertEquals(0, this.statistics.getCreatedCount(Language.ENG));
+        Assert.assertEquals(2, this.statistics.getCustomCreatedCount());
+        Assert.assertEquals(4, this.statistics.getGuessCount());
+        Assert.assertEquals(2, this.statistics.getCorrectGuessCount());
+        Assert.assertEquals(2, this.statistics.getWrongGuessCount());
+        Assert.assertEquals(1, this.statistics.getSolvedCount());
+        Assert.assertEquals(1, this.statistics.getLostCount());
+    }
+
+    @Test
+    public void testMetrics() {
+        new Game("Hi").guess('h');
+        final InMemoryGameRepository repository = new InMemoryGameRepository();
+        repository.save(new Game("Hello"));
+        final GameMetrics metrics = new GameMetrics(this.statistics, repository);
+        metrics.getLatency("quess").record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        final Map<String, Number> values = metrics.metrics().stream().collect(
+                Collectors.toMap(Metric::getName, Metric::getValue));
+        repository.close();
+
+        Assert.assertEquals(2L, values.get("games.created.custom"));
+        Assert.assertEquals(1L, values.get("games.guesses.correct"));
+        Assert.assertEquals(1, values.get("games.running"));
+        Assert.assertEquals(1L, values.get("latency.quess.count"));
+        Assert.assertEquals(3.0, values.get("latency.quess.max").doubleValue(), 0.0);
+        Assert.assertTrue(values.containsKey("games.guesses.rate"));
+    }
+
+    @Test
+    public void testHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000.0, histogram.getMax(), 0.0);
+        Assert.assertEquals(500, histogram.getPercentile(0.5), 500 * 0.125);
+        Assert.assertEquals(990, histogram.getPercentile(0.99), 990 * 0.125);
+        Assert.assertEquals(1000, histogram.getPercentile(1), 0.0);
+        Assert.assertEquals(0, new LatencyHistogram().getPercentile(0.5), 0.0);
+    }
+}
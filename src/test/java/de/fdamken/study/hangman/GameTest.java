@@ -123,6 +123,43 @@ public class GameTest {
         this.expectGame(game, 2, "_ _ _ _ _");
     }
 
+    @Test
+    public void testNonLetterGuess() {
+        final Game game = new Game("HeLlO");
+
+        Assert.assertFalse(game.guess('1'));
+
+        this.expectGame(game, 1, "_ _ _ _ _");
+    }
+
+    @Test
+    public void testSolved() {
+        final Game game = new Game("HeLlO");
+
+        Assert.assertTrue(game.guess('h'));
+        Assert.assertTrue(game.guess('e'));
+        Assert.assertTrue(game.guess('l'));
+        Assert.assertFalse(game.isSolved());
+        Assert.assertTrue(game.guess('o'));
+
+        this.expectGame(game, 0, "H E L L O");
+        Assert.assertTrue(game.isSolved());
+        Assert.assertFalse(game.isLost());
+    }
+
+    @Test
+    public void testLost() {
+        final Game game = new Game("HeLlO", 2);
+
+        Assert.assertFalse(game.guess('a'));
+        Assert.assertFalse(game.isLost());
+        Assert.assertFalse(game.guess('a'));
+
+        this.expectGame(game, 2, "_ _ _ _ _");
+        Assert.assertTrue(game.isLost());
+        Assert.assertFalse(game.isSolved());
+    }
+
     /**
      * Executes all required asserts on the given game.
      *
@@ -0,0 +1,87 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameIds;
+import de.fdamken.study.hangman.rest.GameResponse;
+import de.fdamken.study.hangman.rest.GameView;
+
+/**
+ * Tests {@link GameView} and {@link GameResponse}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class GameViewTest {
+    private final ObjectWriter writer = new ObjectMapper().writerFor(GameResponse.class);
+
+    @Test
+    public void testWordIsHiddenUntilFinished() throws Exception {
+        final Game game = new Game("ABBA");
+        game.guess('A');
+
+        final JsonNode running = this.serialize(new GameResponse(new GameView(game), true));
+        Assert.assertEquals(GameIds.encode(game.getId()), running.path("game").path("id").asText());
+        Assert.assertEquals("A _ _ A", running.path("game").path("maskedWord").asText());
+        Assert.assertEquals(1, running.path("game").path("version").asLong());
+        Assert.assertFalse(running.path("game").has("word"));
+        Assert.assertFalse(running.path("game").has("characters"));
+        Assert.assertTrue(running.path("correct").asBoolean());
+
+        game.guess('B');
+
+        final JsonNode solved = this.serialize(new GameResponse(new GameView(game)));
+        Assert.assertTrue(solved.path("game").path("solved").asBoolean());
+        Assert.assertEquals("ABBA", solved.path("game").path("word").asText());
+        Assert.assertFalse(solved.has("correct"));
+    }
+
+    @Test
+    public void testETagChangesWithVersion() {
+        final Game game = new Game("ABBA");
+        final String initial = new GameView(game).getETag();
+
+        Assert.assertEquals(initial, new GameView(game).getETag());
+        game.guess('X');
+        Assert.assertNotEquals(initial, new GameView(game).getETag());
+        final String afterMistake = new GameView(game).getETag();
+        game.guess('X');
+        game.guess('A');
+        game.guess('A');
+        Assert.assertNotEquals(afterMistake, new GameView(game).getETag());
+    }
+
+    private JsonNode serialize(final GameResponse response) throws Exception {
+        return new ObjectMapper().readTree(this.writer.writeValueAsBytes(response));
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.cluster.HashRing;
+
+/**
+ * Tests {@link HashRing}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class HashRingTest {
+    private static final int KEYS = 100000;
+
+    @Test
+    public void testBalance() {
+        final HashRing ring = new HashRing(Arrays.asList("http://a", "http://b", "http://c", "http://d"),
+                HashRing.DEFAULT_VIRTUAL_NODES);
+        final HashRing same = new HashRing(Arrays.asList("http://d", "http://c", "http://b", "http://a", "http://a"),
+                HashRing.DEFAULT_VIRTUAL_NODES);
+
+        Assert.assertEquals(Arrays.asList("http://a", "http://b", "http://c", "http://d"), ring.getNodes());
+        final Map<String, Integer> counts = new HashMap<>();
+        for (long key = 0; key < HashRingTest.KEYS; key++) {
+            final String owner = ring.getOwner(key);
+            Assert.assertEquals(owner, same.getOwner(key));
+            counts.merge(owner, 1, Integer::sum);
+        }
+        for (final String node : ring.getNodes()) {
+            final int count = counts.get(node);
+            Assert.assertTrue(node + ": " + count, count > HashRingTest.KEYS / 4 * 0.75);
+            Assert.assertTrue(node + ": " + count, count < HashRingTest.KEYS / 4 * 1.25);
+        }
+    }
+
+    @Test
+    public void testRemoveNode() {
+        final HashRing ring = new HashRing(Arrays.asList("http://a", "http://b", "http://c"),
+                HashRing.DEFAULT_VIRTUAL_NODES);
+        final HashRing removed = new HashRing(Arrays.asList("http://a", "http://c"), HashRing.DEFAULT_VIRTUAL_NODES);
+
+        for (long key = 0; key < HashRingTest.KEYS; key++) {
+            final String owner = ring.getOwner(key);
+            if (!owner.equals("http://b")) {
+                Assert.assertEquals(owner, removed.getOwner(key));
+            }
+        }
+    }
+
+    @Test
+    public void testSingleNode() {
+        final HashRing ring = new HashRing(Arrays.asList("http://a"), 1);
+
+        for (long key = 0; key < 1000; key++) {
+            Assert.assertEquals("http://a", ring.getOwner(key));
+        }
+    }
+}
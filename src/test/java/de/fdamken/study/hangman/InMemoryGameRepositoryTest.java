@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameRepository;
+import de.fdamken.study.hangman.game.InMemoryGameRepository;
+
+/**
+ * Tests {@link InMemoryGameRepository}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class InMemoryGameRepositoryTest {
+    private final InMemoryGameRepository repository = new InMemoryGameRepository(2, TimeUnit.HOURS.toMillis(1),
+            TimeUnit.HOURS.toMillis(1));
+
+    @After
+    public void tearDown() {
+        this.repository.close();
+    }
+
+    @Test
+    public void testSaveAndFind() {
+        final Game game = new Game("Hello");
+
+        this.repository.save(game);
+
+        Assert.assertSame(game, this.repository.find(game.getId()));
+        Assert.assertEquals(1, this.repository.size());
+    }
+
+    @Test
+    public void testRemove() {
+        final Game game = new Game("Hello");
+        this.repository.save(game);
+
+        this.repository.remove(game.getId());
+
+        Assert.assertNull(this.repository.find(game.getId()));
+        Assert.assertEquals(0, this.repository.size());
+        Assert.assertEquals(0, this.repository.getEvictionCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws InterruptedException {
+        final Game first = new Game("Hello");
+        final Game second = new Game("Hello");
+        final Game third = new Game("Hello");
+        this.repository.save(first);
+        this.repository.save(second);
+        Thread.sleep(5);
+        this.repository.find(first.getId());
+        this.repository.save(third);
+
+        this.repository.sweep();
+
+        Assert.assertEquals(2, this.repository.size());
+        Assert.assertNotNull(this.repository.find(first.getId()));
+        Assert.assertNull(this.repository.find(second.getId()));
+        Assert.assertNotNull(this.repository.find(third.getId()));
+        Assert.assertEquals(1, this.repository.getCapacityEvictionCount());
+        Assert.assertEquals(1, this.repository.getEvictionCount());
+    }
+
+    @Test
+    public void testIdleGamesAreEvicted() throws InterruptedException {
+        try (InMemoryGameRepository repository = new InMemoryGameRepository(2, 1, TimeUnit.HOURS.toMillis(1))) {
+            final Game game = new Game("Hello");
+            repository.save(game);
+            Thread.sleep(5);
+
+            repository.sweep();
+
+            Assert.assertNull(repository.find(game.getId()));
+            Assert.assertEquals(1, repository.getIdleEvictionCount());
+        }
+    }
+
+    @Test
+    public void testFinishedGamesAreRemoved() {
+        final GameRepository previous = Game.getRepository();
+        Game.setRepository(this.repository);
+        try {
+            final Game solved = new Game("a");
+            final Game lost = new Game("a", 1);
+
+            solved.guess('a');
+            lost.guess('b');
+
+            Assert.assertTrue(solved.isSolved());
+            Assert.assertTrue(lost.isLost());
+            Assert.assertEquals(0, this.repository.size());
+            Assert.assertEquals(0, this.repository.getEvictionCount());
+        } finally {
+            Game.setRepository(previous);
+        }
+    }
+}
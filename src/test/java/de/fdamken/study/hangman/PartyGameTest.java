@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.PartyGame;
+
+/**
+ * Tests {@link PartyGame}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class PartyGameTest {
+    @Test
+    public void testGuess() {
+        final PartyGame party = PartyGame.create("Hello", 3);
+        final PartyGame.Player alice = party.join("alice", "a");
+        final PartyGame.Player bob = party.join("bob", "b");
+        final List<PartyGame.Guess> guesses = new ArrayList<>();
+        party.addParticipant(guesses::add);
+
+        Assert.assertSame(party, PartyGame.getParty(party.getId()));
+        Assert.assertSame(alice, party.join("alice", "a"));
+        Assert.assertTrue(party.guess(alice, 'l').isCorrect());
+        Assert.assertNull(party.guess(bob, 'L'));
+        Assert.assertFalse(party.guess(bob, 'x').isCorrect());
+        Assert.assertNull(party.guess(alice, 'x'));
+        Assert.assertNull(party.guess(alice, '1'));
+
+        final PartyGame.Guess state = party.getCurrentState();
+        Assert.assertEquals("_ _ L L _", state.getMaskedWord());
+        Assert.assertEquals(1, state.getMistakeCount());
+        Assert.assertEquals(2, state.getVersion());
+        Assert.assertEquals(2, guesses.size());
+        Assert.assertSame(bob, guesses.get(1).getPlayer());
+
+        party.guess(bob, 'h');
+        party.guess(alice, 'e');
+        final PartyGame.Guess last = party.guess(bob, 'o');
+        Assert.assertTrue(last.isSolved());
+        Assert.assertEquals("H E L L O", last.getMaskedWord());
+        Assert.assertNull(party.guess(alice, 'z'));
+        Assert.assertNull(PartyGame.getParty(party.getId()));
+        Assert.assertEquals(2, alice.getCorrectCount());
+        Assert.assertEquals(2, bob.getCorrectCount());
+        Assert.assertEquals(1, bob.getWrongCount());
+    }
+
+    @Test
+    public void testLost() {
+        final PartyGame party = PartyGame.create("Hello", 2);
+        final PartyGame.Player player = party.join("player", "p");
+
+        Assert.assertFalse(party.guess(player, 'x').isFinished());
+        Assert.assertTrue(party.guess(player, 'y').isLost());
+        Assert.assertNull(party.guess(player, 'h'));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNameIsBoundToOwner() {
+        final PartyGame party = PartyGame.create("Hello", 3);
+        party.join("alice", "a");
+
+        party.join("alice", "b");
+    }
+
+    @Test
+    public void testConcurrentGuesses() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            final PartyGame party = PartyGame.create("Quizzically", 26);
+            final AtomicInteger received = new AtomicInteger();
+            final AtomicInteger maxVersion = new AtomicInteger();
+            final AtomicReference<PartyGame.Guess> finished = new AtomicReference<>();
+            party.addParticipant(guess -> {
+                received.incrementAndGet();
+                maxVersion.accumulateAndGet(guess.getVersion(), Math::max);
+                if (guess.isFinished()) {
+                    finished.set(guess);
+                }
+            });
+
+            final int threads = 8;
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<PartyGame.Player> players = new ArrayList<>();
+            final List<Thread> workers = new ArrayList<>();
+            final AtomicInteger applied = new AtomicInteger();
+            for (int i = 0; i < threads; i++) {
+                final PartyGame.Player player = party.join("player" + i, i);
+                final int offset = i;
+                players.add(player);
+                workers.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (final InterruptedException ex) {
+                        return;
+                    }
+                    for (int j = 0; j < 26; j++) {
+                        if (party.guess(player, (char) ('a' + (j + offset * 3) % 26)) != null) {
+                            applied.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            start.countDown();
+            for (final Thread worker : workers) {
+                worker.join();
+            }
+
+            final PartyGame.Guess state = party.getCurrentState();
+            final int correct = players.stream().mapToInt(PartyGame.Player::getCorrectCount).sum();
+            final int wrong = players.stream().mapToInt(PartyGame.Player::getWrongCount).sum();
+            Assert.assertTrue(state.isSolved());
+            Assert.assertEquals(8, correct);
+            Assert.assertEquals(state.getMistakeCount(), wrong);
+            Assert.assertEquals(state.getVersion(), applied.get());
+            Assert.assertEquals(applied.get(), received.get());
+            Assert.assertEquals(state.getVersion(), maxVersion.get());
+            // The scores of the finishing guess contain all applied guesses.
+            Assert.assertEquals(8, players.stream().mapToInt(finished.get()::getCorrectCount).sum());
+            Assert.assertEquals(state.getMistakeCount(), players.stream().mapToInt(finished.get()::getWrongCount).sum());
+        }
+    }
+}
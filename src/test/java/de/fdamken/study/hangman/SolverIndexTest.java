@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.Dictionaries;
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.Game;
+import de.fdamken.study.hangman.game.GameGenerator.Language;
+import de.fdamken.study.hangman.game.SolverIndex;
+
+/**
+ * Tests {@link SolverIndex}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class SolverIndexTest {
+    private SolverIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        this.index = Dictionary.read(new ByteArrayInputStream(
+                "hello\nworld\nhallo\nbells\njazz\nqueue\nmississippi\nhills\n".getBytes(StandardCharsets.US_ASCII)))
+                .getSolverIndex();
+    }
+
+    @Test
+    public void testInitialHint() {
+        final SolverIndex.Hint hint = this.index.hint(new Game("HELLO"), 0);
+
+        Assert.assertEquals(Character.valueOf('L'), hint.getCharacter());
+        Assert.assertEquals(6, hint.getCandidates());
+        Assert.assertEquals(5, hint.getMatching());
+    }
+
+    @Test
+    public void testRevealedLetters() {
+        final Game game = new Game("HELLO");
+        game.guess('L');
+
+        final SolverIndex.Hint hint = this.index.hint(game, 0);
+        Assert.assertEquals(Character.valueOf('H'), hint.getCharacter());
+        Assert.assertEquals(4, hint.getCandidates());
+        Assert.assertEquals(3, hint.getMatching());
+    }
+
+    @Test
+    public void testExcludedLetters() {
+        final Game game = new Game("HELLO");
+        game.guess('L');
+
+        final SolverIndex.Hint hint = this.index.hint(game, SolverIndex.mask("h"));
+        Assert.assertEquals(Character.valueOf('B'), hint.getCharacter());
+        Assert.assertEquals(1, hint.getCandidates());
+        Assert.assertEquals(1, hint.getMatching());
+    }
+
+    @Test
+    public void testWrongLetters() {
+        final Game game = new Game("HALLO");
+        game.guess('L');
+        game.guess('E');
+
+        final SolverIndex.Hint hint = this.index.hint(game, 0);
+        Assert.assertEquals(Character.valueOf('H'), hint.getCharacter());
+        Assert.assertEquals(2, hint.getCandidates());
+        Assert.assertEquals(2, hint.getMatching());
+    }
+
+    @Test
+    public void testNoCandidates() {
+        final SolverIndex.Hint hint = this.index.hint(new Game("ABCDEFG"), 0);
+
+        Assert.assertNull(hint.getCharacter());
+        Assert.assertEquals(0, hint.getCandidates());
+    }
+
+    @Test
+    public void testMatchesScan() throws IOException {
+        final Dictionary dictionary = Dictionaries.get(Language.ENG);
+        final SolverIndex solverIndex = dictionary.getSolverIndex();
+        final Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            final Game game = new Game(dictionary.getWord(random.nextInt(dictionary.size())));
+            int excludedMask = 0;
+            for (int j = 0; j < 4; j++) {
+                final char character = (char) ('A' + random.nextInt(26));
+                if (!game.guess(character)) {
+                    excludedMask |= SolverIndex.mask(String.valueOf(character));
+                }
+            }
+
+            final String pattern = game.getMaskedWord().replace(" ", "");
+            final int revealedMask = SolverIndex.mask(pattern);
+            int expected = 0;
+            for (int index = 0; index < dictionary.size(); index++) {
+                final String word = dictionary.getWord(index).toUpperCase();
+                if (SolverIndexTest.matches(word, pattern, revealedMask, excludedMask)) {
+                    expected++;
+                }
+            }
+
+            final SolverIndex.Hint hint = solverIndex.hint(game, excludedMask);
+            Assert.assertEquals(game.getWord(), expected, hint.getCandidates());
+            Assert.assertTrue(hint.getCandidates() > 0);
+        }
+    }
+
+    private static boolean matches(final String word, final String pattern, final int revealedMask,
+            final int excludedMask) {
+        if (word.length() != pattern.length() || (SolverIndex.mask(word) & excludedMask) != 0) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            final char expected = pattern.charAt(i);
+            if (expected == '_' ? (revealedMask & SolverIndex.mask(word.substring(i, i + 1))) != 0
+                    : word.charAt(i) != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
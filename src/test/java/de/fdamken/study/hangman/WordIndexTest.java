@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * hangman
+ * %%
+ * Copyright (C) 2016 Fabian Damken
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package de.fdamken.study.hangman;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.fdamken.study.hangman.game.Dictionary;
+import de.fdamken.study.hangman.game.RandomSource;
+import de.fdamken.study.hangman.game.SeededRandomSource;
+import de.fdamken.study.hangman.game.ThreadLocalRandomSource;
+import de.fdamken.study.hangman.game.WordConstraints;
+import de.fdamken.study.hangman.game.WordIndex;
+
+/**
+ * Tests {@link WordIndex}.
+ *
+ */
+@SuppressWarnings("javadoc")
+public class WordIndexTest {
+    private Dictionary dictionary;
+    private WordIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        this.dictionary = Dictionary.read(new ByteArrayInputStream(
+                "a\nhello\nworld\nbanana\nqueue\nmississippi\njazz\n".getBytes(StandardCharsets.US_ASCII)));
+        this.index = this.dictionary.getIndex();
+    }
+
+    @Test
+    public void testUnconstrained() {
+        Assert.assertEquals(this.dictionary.size(), this.index.count(new WordConstraints()));
+    }
+
+    @Test
+    public void testLength() {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMinLength(5);
+        constraints.setMaxLength(6);
+
+        Assert.assertEquals(4, this.index.count(constraints));
+        this.expectOnly(constraints, "hello", "world", "banana", "queue");
+    }
+
+    @Test
+    public void testDistinctLetters() {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMaxDistinctLetters(3);
+
+        this.expectOnly(constraints, "a", "banana", "queue", "jazz");
+    }
+
+    @Test
+    public void testCombined() {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMinLength(6);
+        constraints.setMaxDistinctLetters(4);
+
+        this.expectOnly(constraints, "banana", "mississippi");
+    }
+
+    @Test
+    public void testDifficulty() {
+        final WordConstraints constraints = new WordConstraints();
+        final int difficulty = this.index.getDifficulty(6);
+        constraints.setMinDifficulty(difficulty);
+        constraints.setMaxDifficulty(difficulty);
+
+        Assert.assertTrue(this.index.count(constraints) >= 1);
+        final int chosen = this.index.choose(constraints, ThreadLocalRandomSource.INSTANCE);
+        Assert.assertEquals(difficulty, this.index.getDifficulty(chosen));
+    }
+
+    @Test
+    public void testNoMatch() {
+        final WordConstraints constraints = new WordConstraints();
+        constraints.setMinLength(20);
+
+        Assert.assertEquals(0, this.index.count(constraints));
+        Assert.assertEquals(-1, this.index.choose(constraints, ThreadLocalRandomSource.INSTANCE));
+    }
+
+    /**
+     * Chooses words many times and checks that exactly the given words are
+     * chosen.
+     *
+     * @param constraints
+     *            The constraints to choose words with.
+     * @param expected
+     *            The words that are expected to match.
+     */
+    private void expectOnly(final WordConstraints constraints, final String... expected) {
+        final RandomSource random = new SeededRandomSource(42);
+        final Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            chosen.add(this.dictionary.getWord(this.index.choose(constraints, random)));
+        }
+        Assert.assertEquals(new HashSet<>(Arrays.asList(expected)), chosen);
+    }
+}